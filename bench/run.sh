@@ -0,0 +1,32 @@
+#!/bin/sh
+# Build and run the JMH benchmarks from the project root, reporting allocation with the gc profiler.
+# Needs maven, which resolves jmh-generator-annprocess (and with it jmh-core and the rest) for JMH_VERSION.
+# Extra arguments go to JMH, e.g. "bench/run.sh SolverBenchmark -p puzzle=8".
+set -e
+cd "$(dirname "$0")/.."
+JMH_VERSION="${JMH_VERSION:-1.37}"
+OUT=bench/out
+rm -rf "$OUT"
+mkdir -p "$OUT/deps"
+# the project has no pom, so a throwaway one names the one dependency maven builds the class path from
+cat > "$OUT/deps/pom.xml" <<POM
+<project xmlns="http://maven.apache.org/POM/4.0.0">
+  <modelVersion>4.0.0</modelVersion>
+  <groupId>puzzles</groupId>
+  <artifactId>bench-deps</artifactId>
+  <version>1</version>
+  <dependencies>
+    <dependency>
+      <groupId>org.openjdk.jmh</groupId>
+      <artifactId>jmh-generator-annprocess</artifactId>
+      <version>$JMH_VERSION</version>
+    </dependency>
+  </dependencies>
+</project>
+POM
+mvn -q -B -f "$OUT/deps/pom.xml" dependency:build-classpath -Dmdep.outputFile="$(pwd)/$OUT/deps/classpath.txt"
+CP="$(cat "$OUT/deps/classpath.txt")"
+# the gui needs javafx and is not benchmarked, the classes go on the class path so module-info is left out
+find src bench/src -name '*.java' ! -name module-info.java ! -path '*/gui/*' > "$OUT/sources.txt"
+javac -d "$OUT" -cp "$CP" @"$OUT/sources.txt"
+java -cp "$OUT:$CP" org.openjdk.jmh.Main -prof gc "$@"
@@ -0,0 +1,45 @@
+package puzzles.bench;
+
+import org.openjdk.jmh.annotations.*;
+import puzzles.clock.ClockConfig;
+import puzzles.common.solver.Configuration;
+import puzzles.common.solver.Solver;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures solving the clock puzzle as the number of hours grows.
+ *
+ * @author Ryleigh Fuller
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClockBenchmark {
+    //the number of hours on the clock, the goal is the hour opposite the start
+    @Param({"12", "1000", "100000"})
+    public int hours;
+
+    //the starting clock
+    private ClockConfig clock;
+
+    /**
+     * Make the starting clock for the size
+     */
+    @Setup(Level.Trial)
+    public void setup(){
+        this.clock = new ClockConfig(String.valueOf(this.hours), "1", String.valueOf(1 + this.hours / 2));
+    }
+
+    /**
+     * @return the path around the clock
+     */
+    @Benchmark
+    public Collection<Configuration> clock(){
+        return new Solver().solve(this.clock);
+    }
+}
@@ -0,0 +1,88 @@
+package puzzles.bench;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import puzzles.common.solver.Configuration;
+import puzzles.hoppers.model.HoppersConfig;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the hoppers board operations the solver calls on every expanded config:
+ * generating successors, hashing and comparing boards.
+ *
+ * @author Ryleigh Fuller
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HoppersConfigBenchmark {
+    //the puzzle file to take the board from
+    @Param({"data/hoppers/hoppers-4.txt", "data/hoppers/hoppers-8.txt"})
+    public String file;
+
+    //the starting board
+    private HoppersConfig start;
+    //an equal board that is a different object, so equals has to compare the frogs
+    private HoppersConfig copy;
+    //a board one move away, so equals has to find the difference
+    private HoppersConfig neighbor;
+
+    /**
+     * Read the board and make the boards to compare it to
+     * @throws IOException if the puzzle file cannot be read
+     */
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        this.start = new HoppersConfig(this.file);
+        this.copy = new HoppersConfig(this.start);
+        Collection<Configuration> successors = this.start.getSuccessors();
+        this.neighbor = successors.isEmpty() ? this.copy : (HoppersConfig) successors.iterator().next();
+    }
+
+    /**
+     * @return every board one jump away
+     */
+    @Benchmark
+    public Collection<Configuration> getSuccessors(){
+        return this.start.getSuccessors();
+    }
+
+    /**
+     * Visit every board one jump away without collecting them
+     * @param blackhole consumes each board so it is not optimized away
+     */
+    @Benchmark
+    public void forEachNeighbor(Blackhole blackhole){
+        this.start.forEachNeighbor(blackhole::consume);
+    }
+
+    /**
+     * @return the hash code of the starting board
+     */
+    @Benchmark
+    public int hash(){
+        return this.start.hashCode();
+    }
+
+    /**
+     * @return true, the boards have the same frogs
+     */
+    @Benchmark
+    public boolean equalsSame(){
+        return this.start.equals(this.copy);
+    }
+
+    /**
+     * @return false, the boards differ by one move
+     */
+    @Benchmark
+    public boolean equalsDifferent(){
+        return this.start.equals(this.neighbor);
+    }
+}
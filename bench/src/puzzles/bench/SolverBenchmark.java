@@ -0,0 +1,58 @@
+package puzzles.bench;
+
+import org.openjdk.jmh.annotations.*;
+import puzzles.common.solver.Configuration;
+import puzzles.common.solver.Solver;
+import puzzles.hoppers.model.HoppersConfig;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a whole breadth first solve of every hoppers puzzle in data/hoppers.
+ * Run from the project root so the puzzle files can be found.
+ *
+ * @author Ryleigh Fuller
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class SolverBenchmark {
+    //the puzzle file number to solve
+    @Param({"0", "1", "2", "3", "4", "5", "6", "7", "8", "9"})
+    public int puzzle;
+
+    //the starting board, read once so file reading is not measured
+    private HoppersConfig start;
+
+    /**
+     * Read the starting board of the puzzle
+     * @throws IOException if the puzzle file cannot be read
+     */
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        this.start = new HoppersConfig("data/hoppers/hoppers-" + this.puzzle + ".txt");
+    }
+
+    /**
+     * Solve with the sequential breadth first solver, a new solver every time like the main does
+     * @return the path, returned so it is not optimized away
+     */
+    @Benchmark
+    public Collection<Configuration> bfs(){
+        return new Solver().solve(this.start);
+    }
+
+    /**
+     * Solve with the level synchronous parallel solver
+     * @return the path, returned so it is not optimized away
+     */
+    @Benchmark
+    public Collection<Configuration> parallel(){
+        return new Solver(Runtime.getRuntime().availableProcessors()).solve(this.start);
+    }
+}
@@ -0,0 +1,45 @@
+package puzzles.bench;
+
+import org.openjdk.jmh.annotations.*;
+import puzzles.common.solver.Configuration;
+import puzzles.common.solver.Solver;
+import puzzles.strings.StringsConfig;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures solving the strings puzzle as the strings get longer.
+ *
+ * @author Ryleigh Fuller
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StringsBenchmark {
+    //the length of the strings, every letter has to go from A to N
+    @Param({"1", "2", "3"})
+    public int length;
+
+    //the starting string
+    private StringsConfig strings;
+
+    /**
+     * Make the starting string for the length
+     */
+    @Setup(Level.Trial)
+    public void setup(){
+        this.strings = new StringsConfig("A".repeat(this.length), "N".repeat(this.length));
+    }
+
+    /**
+     * @return the path from one string to the other
+     */
+    @Benchmark
+    public Collection<Configuration> strings(){
+        return new Solver().solve(this.strings);
+    }
+}
@@ -5,6 +5,7 @@ import puzzles.common.solver.Configuration;
 import java.util.Collection;
 
 import java.util.*;
+import java.util.function.Consumer;
 /**
  * The representation of a clock configuration
  *
@@ -26,6 +27,18 @@ public class ClockConfig implements Configuration {
         this.start = Integer.parseInt(start);
         this.end = Integer.parseInt(end);;
     }
+
+    /**
+        Create a clock configuration without parsing
+        @param hours the amount of hours on the clock
+        @param start the value starting at
+        @param end the goal value
+     */
+    private ClockConfig(int hours, int start, int end){
+        this.hours = hours;
+        this.start = start;
+        this.end = end;
+    }
     /**
         @return the starting value of the ClockConfig
      */
@@ -59,7 +72,16 @@ public class ClockConfig implements Configuration {
     @Override
     public Collection<Configuration> getNeighbors() {
         LinkedList<Configuration> neighbors = new LinkedList<>();
-        //add neighbors
+        forEachNeighbor(neighbors::add);
+        return neighbors;
+    }
+
+    /**
+        Hand both neighbors to visitor without collecting them
+        @param visitor called once for every neighbor
+     */
+    @Override
+    public void forEachNeighbor(Consumer<Configuration> visitor) {
         int n1;
         int n2;
         //if the configuration value minus one is less than the clock allows
@@ -76,9 +98,8 @@ public class ClockConfig implements Configuration {
         }else{
             n2 = this.start + 1;
         }
-        neighbors.add(new ClockConfig(String.valueOf(hours), String.valueOf(n1), String.valueOf(end)));
-        neighbors.add(new ClockConfig(String.valueOf(hours), String.valueOf(n2), String.valueOf(end)));
-        return neighbors;
+        visitor.accept(new ClockConfig(this.hours, n1, this.end));
+        visitor.accept(new ClockConfig(this.hours, n2, this.end));
     }
     /**
         Is this object the same as this ClockConfig
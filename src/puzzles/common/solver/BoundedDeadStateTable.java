@@ -0,0 +1,60 @@
+package puzzles.common.solver;
+
+/**
+ * A fixed size {@link DeadStateTable}. Each configuration has one slot picked by its
+ * hash code, and a new entry replaces whatever was in its slot, so memory never grows
+ * past the capacity given when the table is made.
+ *
+ * @author Ryleigh Fuller
+ */
+public class BoundedDeadStateTable implements DeadStateTable {
+    //the configuration in each slot, null if empty
+    private final Configuration[] configs;
+    //the dead move count of each slot
+    private final int[] moves;
+
+    /**
+     * Create an empty table
+     * @param capacity the most entries kept, rounded up to a power of two
+     */
+    public BoundedDeadStateTable(int capacity){
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.configs = new Configuration[size];
+        this.moves = new int[size];
+    }
+
+    /**
+     * @param config the configuration to look up
+     * @return the dead move count in config's slot, or -1 if the slot holds something else
+     */
+    @Override
+    public int getDeadMoves(Configuration config){
+        int slot = slot(config);
+        return config.equals(this.configs[slot]) ? this.moves[slot] : -1;
+    }
+
+    /**
+     * Put config in its slot, keeping the larger move count if it is already there
+     * @param config the dead configuration
+     * @param moves the number of moves searched, or {@link #NEVER}
+     */
+    @Override
+    public void putDead(Configuration config, int moves){
+        int slot = slot(config);
+        if(config.equals(this.configs[slot])){
+            this.moves[slot] = Math.max(this.moves[slot], moves);
+        }else{
+            this.configs[slot] = config;
+            this.moves[slot] = moves;
+        }
+    }
+
+    /**
+     * @param config a configuration
+     * @return the slot config goes in
+     */
+    private int slot(Configuration config){
+        int h = config.hashCode() * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (this.configs.length - 1);
+    }
+}
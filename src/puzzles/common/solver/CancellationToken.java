@@ -0,0 +1,26 @@
+package puzzles.common.solver;
+
+/**
+ * Lets one thread ask a search running on another thread to stop.
+ * The solver checks it as it goes, so the search ends soon after, not at once.
+ *
+ * @author Ryleigh Fuller
+ */
+public class CancellationToken {
+    //true once cancel has been called
+    private volatile boolean cancelled;
+
+    /**
+     * ask every search holding this token to stop
+     */
+    public void cancel(){
+        this.cancelled = true;
+    }
+
+    /**
+     * @return true if cancel has been called
+     */
+    public boolean isCancelled(){
+        return this.cancelled;
+    }
+}
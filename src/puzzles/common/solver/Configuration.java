@@ -1,6 +1,7 @@
 package puzzles.common.solver;
 
 import java.util.Collection;
+import java.util.function.Consumer;
 
 public interface Configuration {
     boolean isSolution();
@@ -8,4 +9,33 @@ public interface Configuration {
     boolean equals(Object other);
     int hashCode();
     String toString();
+
+    /**
+     * A lower bound on the moves needed to reach a solution, used by {@link DepthFirstSolver}
+     * to stop searching paths that cannot finish within its move limit.
+     * @return the fewest moves a solution could take, 0 if unknown
+     */
+    default int getMinimumMoves(){
+        return 0;
+    }
+
+    /**
+     * Solutions are normally found when they come off the solver's queue. A configuration
+     * can opt in to having its neighbors tested as they are generated instead, which stops
+     * the search a whole level sooner with the same shortest path. This is worth it when
+     * {@link #isSolution()} is cheap, since it is then called on every new configuration.
+     * @return true to test for the goal at generation time, false by default
+     */
+    default boolean isGoalCheckedOnGeneration(){
+        return false;
+    }
+
+    /**
+     * Hand each neighbor to visitor one at a time, in the same order as {@link #getNeighbors()}.
+     * Configurations can override this to make neighbors without building a collection.
+     * @param visitor called once for every neighbor
+     */
+    default void forEachNeighbor(Consumer<Configuration> visitor){
+        getNeighbors().forEach(visitor);
+    }
 }
@@ -0,0 +1,28 @@
+package puzzles.common.solver;
+
+/**
+ * A transposition table of configurations already proven to have no solution
+ * within some number of moves. The depth first solver checks it before searching
+ * below a configuration, so it can hold as much or as little as memory allows.
+ *
+ * @author Ryleigh Fuller
+ */
+public interface DeadStateTable {
+    /** the move count stored for a configuration that has no solution at all */
+    int NEVER = Integer.MAX_VALUE;
+
+    /**
+     * @param config the configuration to look up
+     * @return the number of moves config is known to have no solution within,
+     *         {@link #NEVER} if it has no solution at all, or -1 if nothing is known
+     */
+    int getDeadMoves(Configuration config);
+
+    /**
+     * Record that config has no solution within moves moves.
+     * The table may forget entries at any time.
+     * @param config the dead configuration
+     * @param moves the number of moves searched, or {@link #NEVER}
+     */
+    void putDead(Configuration config, int moves);
+}
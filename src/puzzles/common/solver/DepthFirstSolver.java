@@ -0,0 +1,196 @@
+package puzzles.common.solver;
+
+import java.util.*;
+import java.util.concurrent.CancellationException;
+
+/**
+ * A depth first, iterative deepening solver.
+ * Each pass searches to a move limit that starts at the start's {@link Configuration#getMinimumMoves()},
+ * so the first solution found is a shortest one, while only the current path is kept in memory.
+ * Configurations that fail are put in a {@link DeadStateTable} so they are not searched again.
+ * A puzzle with no solution is only told apart from a deeper one when no pass is cut off by its limit,
+ * which never happens if a configuration can be reached from itself, so searching a puzzle like that
+ * needs a most moves to give up at (see {@link #setMaxMoves(int)}).
+ * Interrupting the solving thread stops the search with a {@link CancellationException}.
+ *
+ * @author Ryleigh Fuller
+ */
+public class DepthFirstSolver {
+    //the configurations already proven to have no solution
+    private final DeadStateTable dead;
+    //drops generated configurations proven dead, null for none
+    private StatePruner pruner;
+    //told how the search is going, null for nobody
+    private ProgressListener listener;
+    //the deepest move limit searched to before giving up, 0 for no limit
+    private int maxMoves;
+
+    private long totalConfigs;
+    private long uniqueConfigs;
+
+    /**
+     * One configuration on the current path
+     */
+    private static class Frame {
+        //the configuration
+        private final Configuration config;
+        //the neighbors not yet searched
+        private final Iterator<Configuration> neighbors;
+        //the moves left to reach a solution from config
+        private final int moves;
+        //true if anything below config was skipped because of the move limit
+        private boolean cutoff;
+
+        /**
+         * @param config the configuration
+         * @param moves the moves left
+         */
+        private Frame(Configuration config, int moves){
+            this.config = config;
+            this.neighbors = config.getNeighbors().iterator();
+            this.moves = moves;
+        }
+    }
+
+    /**
+     * create a new depth first solver with a table of 2^16 dead configurations
+     */
+    public DepthFirstSolver(){
+        this(new BoundedDeadStateTable(1 << 16));
+    }
+
+    /**
+     * create a new depth first solver
+     * @param dead the table of configurations already proven to have no solution
+     */
+    public DepthFirstSolver(DeadStateTable dead){
+        this.dead = dead;
+        this.totalConfigs = 0;
+        this.uniqueConfigs = 0;
+    }
+
+    /**
+     * search deeper and deeper until a solution is found, a pass is never cut off by its move limit,
+     * meaning there is no solution, or the limit passes the most moves set
+     * @param value the overall starting configuration
+     * @return the shortest path from start to finish (in reverse) or null if no path is available
+     * (within the most moves, if set)
+     */
+    public Collection<Configuration> solve(Configuration value){
+        this.totalConfigs++;
+        this.uniqueConfigs++;
+        if(value.isSolution()){
+            return new LinkedList<>(List.of(value));
+        }
+        for(int limit = Math.max(1, value.getMinimumMoves()); this.maxMoves == 0 || limit <= this.maxMoves; limit++){
+            Frame start = new Frame(value, limit);
+            Collection<Configuration> path = helper(start);
+            if(path != null || !start.cutoff){
+                //the path was found, or the search never hit the limit so there is no path
+                return path;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * search below the start within its move limit
+     * @param start the frame of the starting configuration
+     * @return the path from start to finish (in reverse), or null if there is none within the limit
+     */
+    private Collection<Configuration> helper(Frame start){
+        Deque<Frame> stack = new ArrayDeque<>();
+        stack.push(start);
+        while(!stack.isEmpty()){
+            if(Thread.currentThread().isInterrupted()){
+                throw new CancellationException("search interrupted");
+            }
+            Frame top = stack.peek();
+            if(top.neighbors.hasNext()){
+                Configuration config = top.neighbors.next();
+                this.totalConfigs++;
+                if(config.isSolution()){
+                    LinkedList<Configuration> path = new LinkedList<>();
+                    path.add(config);
+                    for(Frame frame: stack){
+                        path.add(frame.config);
+                    }
+                    return path;
+                }
+                int moves = top.moves - 1;
+                //too far from a solution to reach it within the limit
+                if(config.getMinimumMoves() > moves){
+                    top.cutoff = true;
+                    continue;
+                }
+                //proven dead without searching, so never cut off by the limit
+                if(this.pruner != null && this.pruner.isDead(config)){
+                    continue;
+                }
+                //already proven dead with at least this many moves
+                int deadMoves = this.dead.getDeadMoves(config);
+                if(deadMoves >= moves){
+                    top.cutoff |= deadMoves != DeadStateTable.NEVER;
+                    continue;
+                }
+                this.uniqueConfigs++;
+                stack.push(new Frame(config, moves));
+                if(this.listener != null && this.uniqueConfigs % ProgressListener.INTERVAL == 0){
+                    //the frontier of a depth first search is the current path
+                    this.listener.progress(this.uniqueConfigs, stack.size());
+                }
+            }else{
+                //every neighbor failed, so this configuration is dead within its moves
+                //or dead for good if none of them was cut off by the limit
+                stack.pop();
+                this.dead.putDead(top.config, top.cutoff ? top.moves : DeadStateTable.NEVER);
+                if(!stack.isEmpty()){
+                    stack.peek().cutoff |= top.cutoff;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Skip generated configurations the pruner proves dead. Must be set before solving.
+     * @param pruner the pruner, null to search every configuration
+     */
+    public void setPruner(StatePruner pruner){
+        this.pruner = pruner;
+    }
+
+    /**
+     * Give up once a solution would take more moves than this. Must be set before solving.
+     * @param maxMoves the most moves a path may take, 0 for no limit
+     */
+    public void setMaxMoves(int maxMoves){
+        if(maxMoves < 0){
+            throw new IllegalArgumentException("most moves must not be negative: " + maxMoves);
+        }
+        this.maxMoves = maxMoves;
+    }
+
+    /**
+     * @param listener told how the search is going, null for nobody
+     */
+    public void setProgressListener(ProgressListener listener){
+        this.listener = listener;
+    }
+
+    /**
+     *
+     * @return the total configurations created
+     */
+    public long getTotalConfigs(){
+        return this.totalConfigs;
+    }
+
+    /**
+     *
+     * @return the configurations searched below
+     */
+    public long getUniqueConfigs(){
+        return this.uniqueConfigs;
+    }
+}
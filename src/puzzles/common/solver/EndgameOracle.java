@@ -0,0 +1,26 @@
+package puzzles.common.solver;
+
+import java.util.List;
+
+/**
+ * Knows the way to a solution from some configurations without searching, like a table of endgames.
+ * The solver stops as soon as it generates a configuration the oracle knows, and finishes the path
+ * with the oracle's moves. The path is then only a shortest one if every solution from a configuration
+ * takes the same number of moves, as in hoppers where every move takes a green frog.
+ *
+ * @author Ryleigh Fuller
+ */
+public interface EndgameOracle {
+    /**
+     * Must be cheap, and safe to call from several threads at once.
+     * @param config a configuration just generated
+     * @return true if the oracle knows a way from config to a solution
+     */
+    boolean knowsSolution(Configuration config);
+
+    /**
+     * @param config a configuration the oracle knows a way to a solution from
+     * @return the configurations from config to a solution, config first
+     */
+    List<Configuration> complete(Configuration config);
+}
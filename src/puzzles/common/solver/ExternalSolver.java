@@ -0,0 +1,535 @@
+package puzzles.common.solver;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * A breadth first solver that keeps its levels and visited keys in files instead of on the heap,
+ * so it can search puzzles with more configurations than fit in memory.
+ * Only one run of generated configurations is held in memory at a time. Each full run is sorted
+ * by key and written out, and after each level the runs are merged with the sorted file of every
+ * key visited so far, dropping duplicates, to make the next level and the next visited file.
+ * Every record of a level holds the position of its parent on the level before, so the path
+ * is read back from the level files, which are kept until the solve ends.
+ * The path found is a shortest one, though not always the same one {@link Solver} finds.
+ *
+ * @author Ryleigh Fuller
+ */
+public class ExternalSolver {
+    //the bytes buffered by every file read or written
+    private static final int BUFFER_BYTES = 1 << 16;
+    //the most runs merged at once
+    private static final int MERGE_WIDTH = 64;
+
+    //the directory the temporary directory of each solve is made in
+    private final Path directory;
+    //the most configurations held in memory before a run is written, 0 to size runs from the heap
+    private final int runSize;
+    //the sorted runs written for the level being built
+    private List<Path> runs;
+    //the number of the next run file
+    private int runNumber;
+
+    private long totalConfigs;
+    private long uniqueConfigs;
+
+    /**
+     * create a new external solver that writes to the system temporary directory
+     * and sizes its runs to an eighth of the maximum heap
+     */
+    public ExternalSolver(){
+        this(Path.of(System.getProperty("java.io.tmpdir")), 0);
+    }
+
+    /**
+     * create a new external solver
+     * @param directory the directory to put the files of each solve in
+     * @param runSize the most generated configurations held in memory before they are written out,
+     * 0 to use an eighth of the maximum heap
+     */
+    public ExternalSolver(Path directory, int runSize){
+        if(runSize < 0){
+            throw new IllegalArgumentException("run size must not be negative: " + runSize);
+        }
+        this.directory = directory;
+        this.runSize = runSize;
+        this.runs = new ArrayList<>();
+        this.totalConfigs = 0;
+        this.uniqueConfigs = 0;
+    }
+
+    /**
+     * Writes fixed width records of longs to a file, through a buffer
+     */
+    private static class RecordWriter implements AutoCloseable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+        //the number of records written
+        private long count;
+
+        /**
+         * @param file the file to create
+         * @throws IOException if the file can not be created
+         */
+        private RecordWriter(Path file) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            this.buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+        }
+
+        /**
+         * @param record the array holding the record
+         * @param start the first long of the record
+         * @param length the number of longs in the record
+         * @throws IOException if the file can not be written
+         */
+        private void write(long[] record, int start, int length) throws IOException {
+            for(int i = start; i < start + length; i++){
+                if(this.buffer.remaining() < Long.BYTES){
+                    flush();
+                }
+                this.buffer.putLong(record[i]);
+            }
+            this.count++;
+        }
+
+        /**
+         * write out everything buffered
+         * @throws IOException if the file can not be written
+         */
+        private void flush() throws IOException {
+            this.buffer.flip();
+            while(this.buffer.hasRemaining()){
+                this.channel.write(this.buffer);
+            }
+            this.buffer.clear();
+        }
+
+        /**
+         * @throws IOException if the file can not be written
+         */
+        @Override
+        public void close() throws IOException {
+            flush();
+            this.channel.close();
+        }
+    }
+
+    /**
+     * Reads fixed width records of longs from a file in order, through a buffer
+     */
+    private static class RecordReader implements AutoCloseable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+        //the record last read
+        private final long[] record;
+        //false once the file is used up
+        private boolean more;
+
+        /**
+         * @param file the file to read
+         * @param length the number of longs in every record
+         * @throws IOException if the file can not be read
+         */
+        private RecordReader(Path file, int length) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.READ);
+            this.buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+            this.buffer.flip();
+            this.record = new long[length];
+            this.more = true;
+        }
+
+        /**
+         * read the next record into {@link #record}
+         * @return false if there are no more records
+         * @throws IOException if the file can not be read
+         */
+        private boolean next() throws IOException {
+            for(int i = 0; i < this.record.length && this.more; i++){
+                if(this.buffer.remaining() < Long.BYTES){
+                    this.buffer.compact();
+                    int read = 0;
+                    while(this.buffer.position() < Long.BYTES && read >= 0){
+                        read = this.channel.read(this.buffer);
+                    }
+                    this.buffer.flip();
+                    if(this.buffer.remaining() < Long.BYTES){
+                        this.more = false;
+                        break;
+                    }
+                }
+                this.record[i] = this.buffer.getLong();
+            }
+            return this.more;
+        }
+
+        /**
+         * @throws IOException if the file can not be closed
+         */
+        @Override
+        public void close() throws IOException {
+            this.channel.close();
+        }
+    }
+
+    /**
+     * search level by level until a solution is generated or a level is empty
+     * @param start the overall starting configuration
+     * @return the shortest path from start to finish (in reverse) or null if no path is available
+     * @throws IOException if the files can not be written or read
+     */
+    public Collection<Configuration> solve(KeyedConfiguration start) throws IOException {
+        this.totalConfigs++;
+        this.uniqueConfigs++;
+        if(start.isSolution()){
+            return new LinkedList<>(List.of(start));
+        }
+        int width = start.getKey().length;
+        Path dir = Files.createTempDirectory(this.directory, "bfs");
+        try{
+            //a level record is the key then the parent's position on the level before
+            long[] first = Arrays.copyOf(start.getKey(), width + 1);
+            first[width] = -1;
+            try(RecordWriter level = new RecordWriter(dir.resolve("level-0"));
+                RecordWriter visited = new RecordWriter(dir.resolve("visited-0"))){
+                level.write(first, 0, width + 1);
+                visited.write(first, 0, width);
+            }
+            for(int depth = 0; ; depth++){
+                long[] goal = expand(start, dir, depth, width);
+                if(goal != null){
+                    return constructPath(start, dir, depth, goal, width);
+                }
+                long added = merge(dir, depth, width);
+                this.uniqueConfigs += added;
+                if(added == 0){
+                    return null;
+                }
+            }
+        }finally{
+            delete(dir);
+            //the run files went with the directory, a goal can stop a level before they are merged
+            this.runs.clear();
+        }
+    }
+
+    /**
+     * Expand every configuration of a level, writing what they generate as sorted runs
+     * @param start the overall starting configuration, used to rebuild configurations from their keys
+     * @param dir the directory of this solve
+     * @param depth the level to expand
+     * @param width the number of longs in a key
+     * @return the key and parent position of the first solution generated, or null if there is none
+     * @throws IOException if the files can not be written or read
+     */
+    private long[] expand(KeyedConfiguration start, Path dir, int depth, int width) throws IOException {
+        int limit = runLimit(width);
+        //the run starts small and doubles up to the limit, so small levels do not hold a whole run
+        long[][] run = {new long[Math.min(limit, 1024) * (width + 1)]};
+        int[] filled = {0};
+        //the key and parent position of the first solution generated
+        long[][] goal = {null};
+        try(RecordReader level = new RecordReader(dir.resolve("level-" + depth), width + 1)){
+            for(long index = 0; level.next() && goal[0] == null; index++){
+                long parent = index;
+                Configuration value = start.fromKey(Arrays.copyOf(level.record, width));
+                try{
+                    value.forEachNeighbor(config -> {
+                        if(goal[0] != null){
+                            return;
+                        }
+                        this.totalConfigs++;
+                        long[] key = ((KeyedConfiguration) config).getKey();
+                        //every configuration on the next level is a shortest distance away, so the first solution will do
+                        if(config.isSolution()){
+                            goal[0] = Arrays.copyOf(key, width + 1);
+                            goal[0][width] = parent;
+                            return;
+                        }
+                        int at = filled[0] * (width + 1);
+                        if(at == run[0].length){
+                            run[0] = Arrays.copyOf(run[0], Math.min(limit, 2 * filled[0]) * (width + 1));
+                        }
+                        System.arraycopy(key, 0, run[0], at, width);
+                        run[0][at + width] = parent;
+                        if(++filled[0] == limit){
+                            //the visitor cannot throw a checked exception, it is unwrapped below
+                            try{
+                                writeRun(dir, run[0], filled[0], width);
+                            }catch(IOException e){
+                                throw new UncheckedIOException(e);
+                            }
+                            filled[0] = 0;
+                        }
+                    });
+                }catch(UncheckedIOException e){
+                    throw e.getCause();
+                }
+            }
+        }
+        if(goal[0] != null){
+            this.uniqueConfigs++;
+            return goal[0];
+        }
+        if(filled[0] > 0){
+            writeRun(dir, run[0], filled[0], width);
+        }
+        return null;
+    }
+
+    /**
+     * @param width the number of longs in a key
+     * @return the most configurations in a run: the size given, or as many as fit in an eighth of the
+     * maximum heap with the two int arrays the run is sorted through, between 2^10 and 2^20
+     */
+    private int runLimit(int width){
+        if(this.runSize > 0){
+            return this.runSize;
+        }
+        long record = (width + 1L) * Long.BYTES + 2L * Integer.BYTES;
+        return (int) Math.max(1 << 10, Math.min(1 << 20, Runtime.getRuntime().maxMemory() / 8 / record));
+    }
+
+    /**
+     * Sort a run by key, then parent position, and write it to a file
+     * @param dir the directory of this solve
+     * @param run the records of the run
+     * @param count the number of records in the run
+     * @param width the number of longs in a key
+     * @throws IOException if the run cannot be written
+     */
+    private void writeRun(Path dir, long[] run, int count, int width) throws IOException {
+        int length = width + 1;
+        int[] order = new int[count];
+        for(int i = 0; i < count; i++){
+            order[i] = i * length;
+        }
+        sort(order, new int[count], 0, count, run, length);
+        Path file = dir.resolve("run-" + this.runNumber++);
+        this.runs.add(file);
+        try(RecordWriter writer = new RecordWriter(file)){
+            for(int at: order){
+                writer.write(run, at, length);
+            }
+        }
+    }
+
+    /**
+     * Merge sort record offsets by the records they point to
+     * @param order the record offsets, sorted in place between from and to
+     * @param spare an array as long as order to merge through
+     * @param from the first position to sort
+     * @param to one past the last position to sort
+     * @param records the records
+     * @param length the number of longs in a record
+     */
+    private static void sort(int[] order, int[] spare, int from, int to, long[] records, int length){
+        if(to - from < 2){
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        sort(order, spare, from, middle, records, length);
+        sort(order, spare, middle, to, records, length);
+        System.arraycopy(order, from, spare, from, to - from);
+        int left = from;
+        int right = middle;
+        for(int i = from; i < to; i++){
+            if(right == to || left < middle && compare(records, spare[left], records, spare[right], length) <= 0){
+                order[i] = spare[left++];
+            }else{
+                order[i] = spare[right++];
+            }
+        }
+    }
+
+    /**
+     * Merge the runs of a level with the visited keys, writing every key not visited before,
+     * with the smallest parent position it was generated from, as the next level
+     * @param dir the directory of this solve
+     * @param depth the level just expanded
+     * @param width the number of longs in a key
+     * @return the number of configurations on the next level
+     * @throws IOException if the files can not be written or read
+     */
+    private long merge(Path dir, int depth, int width) throws IOException {
+        //merge the runs in groups first, so no more than MERGE_WIDTH files are read at once
+        while(this.runs.size() > MERGE_WIDTH){
+            List<Path> merged = new ArrayList<>();
+            for(int i = 0; i < this.runs.size(); i += MERGE_WIDTH){
+                Path file = dir.resolve("run-" + this.runNumber++);
+                try(RecordWriter writer = new RecordWriter(file)){
+                    mergeRuns(this.runs.subList(i, Math.min(i + MERGE_WIDTH, this.runs.size())), width,
+                            record -> writer.write(record, 0, width + 1));
+                }
+                merged.add(file);
+            }
+            this.runs = merged;
+        }
+        try(RecordReader visited = new RecordReader(dir.resolve("visited-" + depth), width);
+            RecordWriter nextVisited = new RecordWriter(dir.resolve("visited-" + (depth + 1)));
+            RecordWriter next = new RecordWriter(dir.resolve("level-" + (depth + 1)))){
+            boolean[] seen = {visited.next()};
+            mergeRuns(this.runs, width, record -> {
+                //copy over the visited keys that come first
+                while(seen[0] && compare(visited.record, 0, record, 0, width) < 0){
+                    nextVisited.write(visited.record, 0, width);
+                    seen[0] = visited.next();
+                }
+                if(!seen[0] || compare(visited.record, 0, record, 0, width) != 0){
+                    next.write(record, 0, width + 1);
+                    nextVisited.write(record, 0, width);
+                }
+            });
+            while(seen[0]){
+                nextVisited.write(visited.record, 0, width);
+                seen[0] = visited.next();
+            }
+            this.runs = new ArrayList<>();
+            return next.count;
+        }finally{
+            Files.deleteIfExists(dir.resolve("visited-" + depth));
+        }
+    }
+
+    /**
+     * Something merged records are handed to
+     */
+    private interface RecordSink {
+        /**
+         * @param record a key and parent position
+         * @throws IOException if the record can not be written
+         */
+        void accept(long[] record) throws IOException;
+    }
+
+    /**
+     * Merge sorted runs into one sorted stream with every key once, keeping its smallest parent position.
+     * The runs are deleted afterwards.
+     * @param files the runs
+     * @param width the number of longs in a key
+     * @param sink handed every record in order
+     * @throws IOException if the files can not be read
+     */
+    private static void mergeRuns(List<Path> files, int width, RecordSink sink) throws IOException {
+        List<RecordReader> readers = new ArrayList<>();
+        PriorityQueue<RecordReader> heads = new PriorityQueue<>(
+                (a, b) -> compare(a.record, 0, b.record, 0, width + 1));
+        try{
+            for(Path file: files){
+                RecordReader reader = new RecordReader(file, width + 1);
+                readers.add(reader);
+                if(reader.next()){
+                    heads.add(reader);
+                }
+            }
+            long[] last = null;
+            while(!heads.isEmpty()){
+                RecordReader head = heads.poll();
+                long[] record = head.record.clone();
+                if(head.next()){
+                    heads.add(head);
+                }
+                //equal keys come out together, smallest parent first
+                if(last == null || compare(last, 0, record, 0, width) != 0){
+                    sink.accept(record);
+                }
+                last = record;
+            }
+        }finally{
+            for(RecordReader reader: readers){
+                reader.close();
+            }
+            for(Path file: files){
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /**
+     * Read the path back from the level files, following each parent position to the level before
+     * @param start the overall starting configuration
+     * @param dir the directory of this solve
+     * @param depth the level the solution's parent is on
+     * @param goal the key and parent position of the solution
+     * @param width the number of longs in a key
+     * @return the path from start to finish (in reverse)
+     * @throws IOException if the files can not be read
+     */
+    private Collection<Configuration> constructPath(KeyedConfiguration start, Path dir, int depth, long[] goal, int width) throws IOException {
+        LinkedList<Configuration> path = new LinkedList<>();
+        path.add(start.fromKey(Arrays.copyOf(goal, width)));
+        long parent = goal[width];
+        ByteBuffer buffer = ByteBuffer.allocate((width + 1) * Long.BYTES);
+        for(int level = depth; level > 0; level--){
+            try(FileChannel channel = FileChannel.open(dir.resolve("level-" + level), StandardOpenOption.READ)){
+                buffer.clear();
+                long position = parent * buffer.capacity();
+                while(buffer.hasRemaining() && channel.read(buffer, position + buffer.position()) >= 0){
+                    //keep reading until the whole record is in
+                }
+                buffer.flip();
+                long[] key = new long[width];
+                for(int i = 0; i < width; i++){
+                    key[i] = buffer.getLong();
+                }
+                parent = buffer.getLong();
+                path.add(start.fromKey(key));
+            }
+        }
+        path.add(start);
+        return path;
+    }
+
+    /**
+     * @param a the array holding the first record
+     * @param aStart the first long of the first record
+     * @param b the array holding the second record
+     * @param bStart the first long of the second record
+     * @param length the number of longs to compare
+     * @return negative, zero or positive as the first record sorts before, with or after the second
+     */
+    private static int compare(long[] a, int aStart, long[] b, int bStart, int length){
+        for(int i = 0; i < length; i++){
+            int result = Long.compare(a[aStart + i], b[bStart + i]);
+            if(result != 0){
+                return result;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * delete the directory of a solve and every file in it
+     * @param dir the directory of the solve
+     * @throws IOException if a file can not be deleted
+     */
+    private static void delete(Path dir) throws IOException {
+        try(var files = Files.list(dir)){
+            for(Path file: (Iterable<Path>) files::iterator){
+                Files.delete(file);
+            }
+        }
+        Files.delete(dir);
+    }
+
+    /**
+     *
+     * @return the total configurations created
+     */
+    public long getTotalConfigs(){
+        return this.totalConfigs;
+    }
+
+    /**
+     *
+     * @return the total unique configurations
+     */
+    public long getUniqueConfigs(){
+        return this.uniqueConfigs;
+    }
+}
@@ -0,0 +1,24 @@
+package puzzles.common.solver;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Flight Recorder event for the moment a {@link Solver} finds a solution.
+ *
+ * @author Ryleigh Fuller
+ */
+@Name("puzzles.Goal")
+@Label("Goal Found")
+@Category("Puzzles")
+@Description("A solution was found")
+class GoalEvent extends Event {
+    @Label("Depth")
+    int depth;
+
+    @Label("Unique Configs")
+    long uniqueConfigs;
+}
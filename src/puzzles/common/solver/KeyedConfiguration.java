@@ -0,0 +1,35 @@
+package puzzles.common.solver;
+
+/**
+ * A configuration that can be packed into a fixed number of longs.
+ * The solver keeps the keys of these configurations in a {@link StateTable}
+ * instead of keeping every configuration object in a map and a queue.
+ *
+ * @author Ryleigh Fuller
+ */
+public interface KeyedConfiguration extends Configuration {
+    /**
+     * Equal configurations must give equal keys, and every key of a puzzle must have the same length.
+     * The array may be shared with the configuration, so callers must not modify it.
+     * @return the packed state
+     */
+    long[] getKey();
+
+    /**
+     * The key of a representative shared by every configuration symmetric to this one.
+     * Symmetric configurations must be the same number of moves from a solution,
+     * and a move from one must mirror a move from each of the others.
+     * The solver only uses this when asked to merge symmetric configurations.
+     * @return the canonical key, by default {@link #getKey()}
+     */
+    default long[] getCanonicalKey(){
+        return getKey();
+    }
+
+    /**
+     * Rebuild a configuration of the same puzzle from its key
+     * @param key a key given by {@link #getKey()} of a configuration of this puzzle
+     * @return the configuration with that key
+     */
+    Configuration fromKey(long[] key);
+}
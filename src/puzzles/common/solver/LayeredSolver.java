@@ -0,0 +1,183 @@
+package puzzles.common.solver;
+
+import java.util.*;
+
+/**
+ * A breadth first solver that only keeps two levels of configurations at a time.
+ * It is meant for puzzles where a configuration can never show up on two different
+ * levels, such as hoppers, where every move removes a green frog. Duplicates are only
+ * looked for in the level being expanded and the level being built, and older levels
+ * are dropped. All that is kept of an old level is one long per configuration: the
+ * position of its parent in the level before and which of the parent's neighbors it was.
+ * The path is rebuilt by replaying those neighbor positions forward from the start.
+ *
+ * @author Ryleigh Fuller
+ */
+public class LayeredSolver {
+    //for every level after the first, each configuration's parent position (high half) and neighbor position (low half)
+    private final List<long[]> records;
+    //the records of the level being built
+    private long[] building;
+    //drops generated configurations proven dead, null for none
+    private StatePruner pruner;
+
+    private long totalConfigs;
+    private long uniqueConfigs;
+
+    /**
+     * create a new layered solver
+     */
+    public LayeredSolver(){
+        this.records = new ArrayList<>();
+        this.totalConfigs = 0;
+        this.uniqueConfigs = 0;
+    }
+
+    /**
+     * search level by level until a solution is found or a level is empty
+     * the total and unique counts match {@link Solver} as long as no configuration repeats across levels,
+     * they and the records start over with every solve
+     * @param start the overall starting configuration
+     * @return the shortest path from start to finish (in reverse) or null if no path is available
+     */
+    public Collection<Configuration> solve(KeyedConfiguration start){
+        //the records of an earlier solve would be walked as levels of this one
+        this.records.clear();
+        this.totalConfigs = 0;
+        this.uniqueConfigs = 0;
+        this.totalConfigs++;
+        this.uniqueConfigs++;
+        if(start.isSolution()){
+            return new LinkedList<>(List.of(start));
+        }
+        boolean early = start.isGoalCheckedOnGeneration();
+        StateTable current = new StateTable(start.getKey().length);
+        current.add(start.getKey(), 0);
+        while(current.size() > 0){
+            StateTable next = new StateTable(start.getKey().length);
+            this.building = new long[16];
+            for(int index = 0; index < current.size(); index++){
+                Configuration value = start.fromKey(current.getKey(index));
+                //without early goal tests the solution is found when it comes off the level
+                if(!early && value.isSolution()){
+                    return constructPath(start, index);
+                }
+                int parent = index;
+                int[] ordinal = {0};
+                int[] goal = {-1};
+                StateTable level = current;
+                value.forEachNeighbor(config -> {
+                    if(goal[0] >= 0){
+                        return;
+                    }
+                    this.totalConfigs++;
+                    long[] key = ((KeyedConfiguration) config).getKey();
+                    if(level.find(key) < 0 && !isPruned(next, key, config) && next.add(key, 0) >= 0){
+                        this.uniqueConfigs++;
+                        recordParent(next.size() - 1, parent, ordinal[0]);
+                        if(early && config.isSolution()){
+                            goal[0] = next.size() - 1;
+                        }
+                    }
+                    ordinal[0]++;
+                });
+                if(goal[0] >= 0){
+                    this.records.add(this.building);
+                    return constructPath(start, goal[0]);
+                }
+            }
+            this.records.add(Arrays.copyOf(this.building, next.size()));
+            //the level just expanded is dropped, the new one is expanded next
+            current = next;
+        }
+        return null;
+    }
+
+    /**
+     * record where a configuration of the level being built came from
+     * @param position the configuration's position on the level being built
+     * @param parent the parent's position on the level being expanded
+     * @param ordinal which of the parent's neighbors it is
+     */
+    private void recordParent(int position, int parent, int ordinal){
+        if(position == this.building.length){
+            this.building = Arrays.copyOf(this.building, position * 2);
+        }
+        this.building[position] = ((long) parent << 32) | ordinal;
+    }
+
+    /**
+     * Rebuild the path to a configuration on the newest level by following the parent
+     * positions back to the start, then replaying the neighbor positions forward
+     * @param start the overall starting configuration
+     * @param index the position of the solution on the newest level
+     * @return the path from start to finish (in reverse)
+     */
+    private Collection<Configuration> constructPath(Configuration start, int index){
+        int[] ordinals = new int[this.records.size()];
+        for(int level = this.records.size() - 1; level >= 0; level--){
+            long record = this.records.get(level)[index];
+            ordinals[level] = (int) record;
+            index = (int) (record >>> 32);
+        }
+        LinkedList<Configuration> path = new LinkedList<>();
+        Configuration currNode = start;
+        path.addFirst(currNode);
+        for(int ordinal: ordinals){
+            currNode = neighbor(currNode, ordinal);
+            path.addFirst(currNode);
+        }
+        return path;
+    }
+
+    /**
+     * @param config a configuration
+     * @param ordinal a neighbor position
+     * @return the neighbor of config at that position
+     */
+    private static Configuration neighbor(Configuration config, int ordinal){
+        Configuration[] found = {null};
+        int[] position = {0};
+        config.forEachNeighbor(neighbor -> {
+            if(position[0]++ == ordinal){
+                found[0] = neighbor;
+            }
+        });
+        return found[0];
+    }
+
+    /**
+     * The pruner only looks at configurations not already in the level being built
+     * @param next the level being built
+     * @param key the key of config
+     * @param config a generated configuration not in the level being expanded
+     * @return true if the pruner proves config dead
+     */
+    private boolean isPruned(StateTable next, long[] key, Configuration config){
+        return this.pruner != null && next.find(key) < 0 && this.pruner.isDead(config);
+    }
+
+    /**
+     * Skip generated configurations the pruner proves dead. Must be set before solving.
+     * @param pruner the pruner, null to search every configuration
+     */
+    public void setPruner(StatePruner pruner){
+        this.pruner = pruner;
+    }
+
+    /**
+     *
+     * @return the total configurations created
+     */
+    public long getTotalConfigs(){
+        return this.totalConfigs;
+    }
+
+    /**
+     *
+     * @return the total unique configurations
+     */
+    public long getUniqueConfigs(){
+        return this.uniqueConfigs;
+    }
+}
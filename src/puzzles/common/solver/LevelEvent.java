@@ -0,0 +1,28 @@
+package puzzles.common.solver;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Flight Recorder event covering the expansion of one level of a {@link Solver} solve,
+ * committed when the level is complete.
+ *
+ * @author Ryleigh Fuller
+ */
+@Name("puzzles.Level")
+@Label("Level")
+@Category("Puzzles")
+@Description("One level of a breadth first solve")
+class LevelEvent extends Event {
+    @Label("Depth")
+    int depth;
+
+    @Label("Frontier")
+    long frontier;
+
+    @Label("Unique Configs")
+    long uniqueConfigs;
+}
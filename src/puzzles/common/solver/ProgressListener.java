@@ -0,0 +1,18 @@
+package puzzles.common.solver;
+
+/**
+ * Told how a long search is going, every few thousand configurations.
+ * It is called on the thread doing the search.
+ *
+ * @author Ryleigh Fuller
+ */
+public interface ProgressListener {
+    /** how many configurations are searched between calls */
+    int INTERVAL = 1 << 14;
+
+    /**
+     * @param explored the configurations searched so far
+     * @param frontier the configurations waiting to be searched
+     */
+    void progress(long explored, int frontier);
+}
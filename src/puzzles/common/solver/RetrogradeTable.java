@@ -0,0 +1,253 @@
+package puzzles.common.solver;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * The distance to a solution of every configuration reachable from a start, worked out once
+ * so that asking whether a board can still be solved, or for the next step, is a table lookup.
+ * Building it walks forward from the start to number every reachable configuration in a
+ * {@link StateTable} and record its moves, then walks the moves backward from the solutions,
+ * so each configuration gets the fewest moves it needs, or is marked dead if no solution
+ * can be reached from it.
+ * Configurations are stored by their canonical key, so symmetric boards share one entry.
+ *
+ * @author Ryleigh Fuller
+ */
+public class RetrogradeTable {
+    //the depth of a configuration in the table with no solution
+    public static final int DEAD = -1;
+    //the depth of a configuration that is not in the table
+    public static final int UNKNOWN = -2;
+    //the first int of a table file
+    private static final int MAGIC = 0x52455452;
+    //the stored depth of a dead configuration, depths are unsigned bytes
+    private static final int NO_SOLUTION = 0xFF;
+
+    //every reachable configuration's canonical key, numbered in the order it was reached
+    private final StateTable states;
+    //the fewest moves to a solution of each configuration, NO_SOLUTION if there is none
+    private final byte[] depths;
+    //the number of configurations with a solution
+    private final int winning;
+
+    /**
+     * @param states the canonical keys
+     * @param depths the depth of each key
+     */
+    private RetrogradeTable(StateTable states, byte[] depths){
+        this.states = states;
+        this.depths = depths;
+        int count = 0;
+        for(byte depth : depths){
+            if((depth & 0xFF) != NO_SOLUTION){
+                count++;
+            }
+        }
+        this.winning = count;
+    }
+
+    /**
+     * Work out the distance to a solution of every configuration reachable from the start
+     * @param start the overall starting configuration
+     * @return the table
+     * @throws IllegalStateException if some configuration is 255 or more moves from its nearest solution
+     */
+    public static RetrogradeTable build(KeyedConfiguration start){
+        StateTable states = new StateTable(start.getCanonicalKey().length);
+        states.add(start.getCanonicalKey(), -1);
+        //the moves of configuration i go to targets[firstMove[i]] up to targets[firstMove[i + 1]]
+        int[] firstMove = new int[1024];
+        int[] targets = new int[1024];
+        int moves = 0;
+        BitSet solutions = new BitSet();
+        //the table grows as it is walked, so every configuration is expanded once in the order it was found
+        for(int entry = 0; entry < states.size(); entry++){
+            Configuration config = start.fromKey(states.getKey(entry));
+            if(entry + 1 >= firstMove.length){
+                firstMove = Arrays.copyOf(firstMove, firstMove.length * 2);
+            }
+            firstMove[entry] = moves;
+            if(config.isSolution()){
+                solutions.set(entry);
+            }
+            for(Configuration next : config.getNeighbors()){
+                long[] key = ((KeyedConfiguration) next).getCanonicalKey();
+                int target = states.add(key, -1);
+                if(target < 0){
+                    target = states.find(key);
+                }
+                if(moves == targets.length){
+                    targets = Arrays.copyOf(targets, targets.length * 2);
+                }
+                targets[moves++] = target;
+            }
+        }
+        int size = states.size();
+        firstMove[size] = moves;
+
+        //turn the moves around: the moves into configuration i come from sources[firstSource[i]]...
+        int[] firstSource = new int[size + 1];
+        for(int i = 0; i < moves; i++){
+            firstSource[targets[i] + 1]++;
+        }
+        for(int i = 0; i < size; i++){
+            firstSource[i + 1] += firstSource[i];
+        }
+        int[] sources = new int[moves];
+        int[] filled = Arrays.copyOf(firstSource, size);
+        for(int entry = 0; entry < size; entry++){
+            for(int i = firstMove[entry]; i < firstMove[entry + 1]; i++){
+                sources[filled[targets[i]]++] = entry;
+            }
+        }
+        targets = null;
+
+        //breadth first backward from every solution, so each configuration is reached first by its fewest moves
+        byte[] depths = new byte[size];
+        Arrays.fill(depths, (byte) NO_SOLUTION);
+        int[] queue = new int[size];
+        int head = 0;
+        int tail = 0;
+        for(int entry = solutions.nextSetBit(0); entry >= 0; entry = solutions.nextSetBit(entry + 1)){
+            depths[entry] = 0;
+            queue[tail++] = entry;
+        }
+        while(head < tail){
+            int entry = queue[head++];
+            int depth = (depths[entry] & 0xFF) + 1;
+            for(int i = firstSource[entry]; i < firstSource[entry + 1]; i++){
+                int source = sources[i];
+                if((depths[source] & 0xFF) == NO_SOLUTION){
+                    if(depth >= NO_SOLUTION){
+                        throw new IllegalStateException("a configuration is more than " + (NO_SOLUTION - 1) + " moves from a solution");
+                    }
+                    depths[source] = (byte) depth;
+                    queue[tail++] = source;
+                }
+            }
+        }
+        return new RetrogradeTable(states, depths);
+    }
+
+    /**
+     * @param config a configuration of the puzzle the table was built for
+     * @return the fewest moves from config to a solution, DEAD if there is no solution,
+     * or UNKNOWN if config is not reachable from the start the table was built from
+     */
+    public int getDepth(KeyedConfiguration config){
+        int entry = this.states.find(config.getCanonicalKey());
+        if(entry < 0){
+            return UNKNOWN;
+        }
+        int depth = this.depths[entry] & 0xFF;
+        return depth == NO_SOLUTION ? DEAD : depth;
+    }
+
+    /**
+     * @param config a configuration of the puzzle the table was built for
+     * @return a neighbor of config one move closer to a solution, or null if config is a solution,
+     * has no solution or is not in the table
+     */
+    public Configuration nextStep(KeyedConfiguration config){
+        int depth = getDepth(config);
+        if(depth <= 0){
+            return null;
+        }
+        for(Configuration next : config.getNeighbors()){
+            if(getDepth((KeyedConfiguration) next) == depth - 1){
+                return next;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the number of configurations in the table
+     */
+    public int size(){
+        return this.depths.length;
+    }
+
+    /**
+     * @return the number of configurations in the table with a solution
+     */
+    public int getWinning(){
+        return this.winning;
+    }
+
+    /**
+     * Write the table: the header, the key width and count, every key, then every depth
+     * @param file the file to write
+     * @param header what the table was built for, like the board's geometry, checked by {@link #load(Path, int...)}
+     * @throws IOException if the file cannot be written
+     */
+    public void save(Path file, int... header) throws IOException {
+        try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))){
+            int width = this.states.getKey(0).length;
+            out.writeInt(MAGIC);
+            out.writeInt(header.length);
+            for(int value : header){
+                out.writeInt(value);
+            }
+            out.writeInt(width);
+            out.writeInt(this.depths.length);
+            for(int entry = 0; entry < this.depths.length; entry++){
+                for(long word : this.states.getKey(entry)){
+                    out.writeLong(word);
+                }
+            }
+            out.write(this.depths);
+        }
+    }
+
+    /**
+     * Read a table written by {@link #save(Path, int...)}
+     * @param file the file to read
+     * @param header what the table must have been built for, the header it was saved with
+     * @return the table
+     * @throws IOException if the file cannot be read, is not a table or was built for something else
+     */
+    public static RetrogradeTable load(Path file, int... header) throws IOException {
+        try(DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))){
+            if(in.readInt() != MAGIC){
+                throw new IOException(file + " is not a retrograde table");
+            }
+            int length = in.readInt();
+            if(length < 0 || length > 1024){
+                throw new IOException(file + " is not a retrograde table");
+            }
+            int[] saved = new int[length];
+            for(int i = 0; i < length; i++){
+                saved[i] = in.readInt();
+            }
+            if(!Arrays.equals(saved, header)){
+                throw new IOException(file + " was built for another board");
+            }
+            int width = in.readInt();
+            int size = in.readInt();
+            if(width <= 0 || size <= 0){
+                throw new IOException(file + " is not a retrograde table");
+            }
+            StateTable states = new StateTable(width);
+            long[] key = new long[width];
+            for(int entry = 0; entry < size; entry++){
+                for(int i = 0; i < width; i++){
+                    key[i] = in.readLong();
+                }
+                states.add(key, -1);
+            }
+            byte[] depths = new byte[size];
+            in.readFully(depths);
+            if(states.size() != size){
+                throw new IOException(file + " has a key more than once");
+            }
+            return new RetrogradeTable(states, depths);
+        }catch(EOFException e){
+            throw new IOException(file + " is cut short", e);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package puzzles.common.solver;
+
+/**
+ * A configuration that knows the move that produced it and can take a move back.
+ * The solver then only has to store a small move code for each visited configuration,
+ * and walks the path backward from the finish by undoing moves.
+ *
+ * @author Ryleigh Fuller
+ */
+public interface ReversibleConfiguration extends Configuration {
+    /**
+     * @return the code of the move that produced this configuration,
+     *         or -1 if it was not produced by a move
+     */
+    int getMove();
+
+    /**
+     * Take back a move
+     * @param move the code of the move that produced this configuration
+     * @return the configuration the move was made from
+     */
+    Configuration undoMove(int move);
+}
@@ -0,0 +1,90 @@
+package puzzles.common.solver;
+
+/**
+ * Something that happened during a search, published by {@link Solver} as it goes.
+ *
+ * @author Ryleigh Fuller
+ */
+public class SearchEvent {
+    /**
+     * The kinds of event
+     */
+    public enum Type {
+        /** a level of the search is about to be expanded */
+        LEVEL,
+        /** a configuration was seen for the first time, only published when asked for */
+        DISCOVERED,
+        /** a solution was found */
+        GOAL,
+        /** the search ended, with or without a solution */
+        FINISHED
+    }
+
+    private final Type type;
+    //the number of moves from the start
+    private final int depth;
+    //the configurations on the level, for a level event
+    private final long frontier;
+    //the unique configurations seen so far
+    private final long explored;
+    //the configuration discovered or found to be a solution, null for other events
+    private final Configuration config;
+
+    /**
+     * @param type the kind of event
+     * @param depth the number of moves from the start of the level, configuration or solution
+     * @param frontier the configurations on the level, for a level event
+     * @param explored the unique configurations seen so far
+     * @param config the configuration discovered or found to be a solution, null for other events
+     */
+    public SearchEvent(Type type, int depth, long frontier, long explored, Configuration config){
+        this.type = type;
+        this.depth = depth;
+        this.frontier = frontier;
+        this.explored = explored;
+        this.config = config;
+    }
+
+    /**
+     * @return the kind of event
+     */
+    public Type getType(){
+        return this.type;
+    }
+
+    /**
+     * @return the number of moves from the start of the level, configuration or solution
+     */
+    public int getDepth(){
+        return this.depth;
+    }
+
+    /**
+     * @return the configurations on the level, for a level event
+     */
+    public long getFrontier(){
+        return this.frontier;
+    }
+
+    /**
+     * @return the unique configurations seen so far
+     */
+    public long getExplored(){
+        return this.explored;
+    }
+
+    /**
+     * @return the configuration discovered or found to be a solution, null for other events
+     */
+    public Configuration getConfig(){
+        return this.config;
+    }
+
+    /**
+     * @return the event on one line, without the configuration
+     */
+    @Override
+    public String toString(){
+        return this.type + " depth " + this.depth + " frontier " + this.frontier + " explored " + this.explored;
+    }
+}
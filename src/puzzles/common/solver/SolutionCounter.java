@@ -0,0 +1,135 @@
+package puzzles.common.solver;
+
+import java.math.BigInteger;
+import java.util.*;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Counts the distinct move sequences from a configuration to a solution.
+ * The count of a configuration is the sum of the counts of its neighbors, and a solution counts once,
+ * so each configuration is searched one time and its count is remembered instead of walking every path.
+ * That only works when no configuration can be reached from itself, like hoppers where every move
+ * takes a frog; a cycle would mean infinitely many paths, so finding one is an error.
+ * Interrupting the counting thread stops the search with a {@link CancellationException}.
+ *
+ * @author Ryleigh Fuller
+ */
+public class SolutionCounter {
+    //marks a configuration on the current path, whose count is not known yet
+    private static final BigInteger ON_PATH = new BigInteger("-1");
+
+    //the number of paths to a solution from every configuration searched
+    private final Map<Configuration, BigInteger> counts = new HashMap<>();
+    //counts configurations proven dead as zero without searching them, null for none
+    private StatePruner pruner;
+
+    private long totalConfigs;
+    private long uniqueConfigs;
+
+    /**
+     * One configuration on the current path
+     */
+    private static class Frame {
+        //the configuration
+        private final Configuration config;
+        //the neighbors not yet counted
+        private final Iterator<Configuration> neighbors;
+        //the paths to a solution through the neighbors counted so far
+        private BigInteger count = BigInteger.ZERO;
+
+        /**
+         * @param config the configuration
+         */
+        private Frame(Configuration config){
+            this.config = config;
+            this.neighbors = config.getNeighbors().iterator();
+        }
+    }
+
+    /**
+     * Count every path from the start to a solution. A path ends at the first solution on it.
+     * @param value the overall starting configuration
+     * @return the number of distinct paths, 0 if there is no solution
+     * @throws IllegalStateException if a configuration can be reached from itself
+     */
+    public BigInteger count(Configuration value){
+        this.totalConfigs++;
+        BigInteger known = this.counts.get(value);
+        if(known != null && known != ON_PATH){
+            return known;
+        }
+        if(value.isSolution()){
+            return BigInteger.ONE;
+        }
+        this.uniqueConfigs++;
+        Deque<Frame> stack = new ArrayDeque<>();
+        stack.push(new Frame(value));
+        this.counts.put(value, ON_PATH);
+        try{
+            while(!stack.isEmpty()){
+                if(Thread.currentThread().isInterrupted()){
+                    throw new CancellationException("count interrupted");
+                }
+                Frame top = stack.peek();
+                if(top.neighbors.hasNext()){
+                    Configuration config = top.neighbors.next();
+                    this.totalConfigs++;
+                    known = this.counts.get(config);
+                    if(known == ON_PATH){
+                        throw new IllegalStateException("a configuration can be reached from itself:\n" + config);
+                    }
+                    if(known != null){
+                        top.count = top.count.add(known);
+                    }else if(config.isSolution()){
+                        top.count = top.count.add(BigInteger.ONE);
+                    }else if(this.pruner != null && this.pruner.isDead(config)){
+                        //remembered so the pruner is not asked again
+                        this.counts.put(config, BigInteger.ZERO);
+                    }else{
+                        this.uniqueConfigs++;
+                        this.counts.put(config, ON_PATH);
+                        stack.push(new Frame(config));
+                    }
+                }else{
+                    //every neighbor is counted, so this configuration's count is final
+                    stack.pop();
+                    this.counts.put(top.config, top.count);
+                    if(!stack.isEmpty()){
+                        stack.peek().count = stack.peek().count.add(top.count);
+                    }
+                }
+            }
+        }catch(RuntimeException e){
+            //the configurations left on the path have no count, so a later call must search them again
+            for(Frame frame : stack){
+                this.counts.remove(frame.config);
+            }
+            throw e;
+        }
+        return this.counts.get(value);
+    }
+
+    /**
+     * Count configurations the pruner proves dead as zero without searching them. Must be set before counting.
+     * @param pruner the pruner, null to search every configuration
+     */
+    public void setPruner(StatePruner pruner){
+        this.pruner = pruner;
+    }
+
+    /**
+     *
+     * @return the total configurations created
+     */
+    public long getTotalConfigs(){
+        return this.totalConfigs;
+    }
+
+    /**
+     *
+     * @return the configurations searched below
+     */
+    public long getUniqueConfigs(){
+        return this.uniqueConfigs;
+    }
+}
@@ -0,0 +1,104 @@
+package puzzles.common.solver;
+
+import java.time.Duration;
+
+/**
+ * The limits a solve must stay within. A new budget has no limits,
+ * and each setter adds one. When any limit is passed the solve gives up
+ * with a {@link SolveResult.Status#ABORTED} result.
+ *
+ * @author Ryleigh Fuller
+ */
+public class SolveBudget {
+    //the most configurations expanded, 0 for no limit
+    private long maxExpanded;
+    //the most heap in use, in bytes, 0 for no limit
+    private long maxMemory;
+    //the longest a solve may run, null for no limit
+    private Duration timeLimit;
+    //asked to stop the solve from another thread, null for never
+    private CancellationToken token;
+
+    /**
+     * @param maxExpanded the most configurations expanded, 0 for no limit
+     * @return this budget
+     */
+    public SolveBudget setMaxExpanded(long maxExpanded){
+        this.maxExpanded = maxExpanded;
+        return this;
+    }
+
+    /**
+     * The memory limit is checked against the whole heap in use, so it is approximate:
+     * it counts garbage not yet collected and anything else the program holds.
+     * @param maxMemory the most heap in use, in bytes, 0 for no limit
+     * @return this budget
+     */
+    public SolveBudget setMaxMemory(long maxMemory){
+        this.maxMemory = maxMemory;
+        return this;
+    }
+
+    /**
+     * @param timeLimit the longest a solve may run, counted from when it starts, null for no limit
+     * @return this budget
+     */
+    public SolveBudget setTimeLimit(Duration timeLimit){
+        this.timeLimit = timeLimit;
+        return this;
+    }
+
+    /**
+     * @param token asked to stop the solve from another thread, null for never
+     * @return this budget
+     */
+    public SolveBudget setCancellationToken(CancellationToken token){
+        this.token = token;
+        return this;
+    }
+
+    /**
+     * @param startNanos the {@link System#nanoTime()} the solve started at
+     * @return the {@link System#nanoTime()} the solve must stop at, or Long.MAX_VALUE for no limit
+     */
+    long deadline(long startNanos){
+        if(this.timeLimit == null){
+            return Long.MAX_VALUE;
+        }
+        return startNanos + Math.min(this.timeLimit.toNanos(), Long.MAX_VALUE - startNanos);
+    }
+
+    /**
+     * Check the cheap limit, on every expansion
+     * @param expanded the configurations expanded so far
+     * @return why the solve must stop, or null if it is within the limit
+     */
+    String checkExpanded(long expanded){
+        if(this.maxExpanded > 0 && expanded >= this.maxExpanded){
+            return "expanded " + expanded + " configurations";
+        }
+        return null;
+    }
+
+    /**
+     * Check the limits that cost more to look at, every few thousand expansions
+     * @param deadline the value given by {@link #deadline(long)}
+     * @return why the solve must stop, or null if it is within every limit
+     */
+    String checkOthers(long deadline){
+        if(this.token != null && this.token.isCancelled()){
+            return "cancelled";
+        }
+        if(deadline != Long.MAX_VALUE && System.nanoTime() - deadline >= 0){
+            return "ran out of time after " + this.timeLimit.toMillis() + " ms";
+        }
+        if(this.maxMemory > 0){
+            Runtime runtime = Runtime.getRuntime();
+            long used = runtime.totalMemory() - runtime.freeMemory();
+            if(used > this.maxMemory){
+                return "used " + (used >> 20) + " MB of heap";
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,34 @@
+package puzzles.common.solver;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Flight Recorder event covering a whole {@link Solver} solve.
+ * Like every JFR event it costs almost nothing when no recording is running.
+ *
+ * @author Ryleigh Fuller
+ */
+@Name("puzzles.Solve")
+@Label("Solve")
+@Category("Puzzles")
+@Description("A breadth first solve, from start to finish")
+class SolveEvent extends Event {
+    @Label("Puzzle")
+    String puzzle;
+
+    @Label("Parallelism")
+    int parallelism;
+
+    @Label("Solved")
+    boolean solved;
+
+    @Label("Total Configs")
+    long totalConfigs;
+
+    @Label("Unique Configs")
+    long uniqueConfigs;
+}
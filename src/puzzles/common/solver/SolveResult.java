@@ -0,0 +1,110 @@
+package puzzles.common.solver;
+
+import java.util.Collection;
+
+/**
+ * How a solve ended, with the statistics it got to.
+ * An aborted solve keeps the counts reached when it gave up.
+ *
+ * @author Ryleigh Fuller
+ */
+public class SolveResult {
+    /**
+     * The ways a solve can end
+     */
+    public enum Status {
+        /** a shortest path was found */
+        SOLVED,
+        /** every reachable configuration was searched and none is a solution */
+        NO_SOLUTION,
+        /** a limit of the {@link SolveBudget} was passed before the search finished */
+        ABORTED
+    }
+
+    private final Status status;
+    //the path from start to finish (in reverse), null unless solved
+    private final Collection<Configuration> path;
+    //why the solve was aborted, null unless aborted
+    private final String reason;
+    private final long expanded;
+    private final long totalConfigs;
+    private final long uniqueConfigs;
+    private final long elapsedMillis;
+
+    /**
+     * @param status how the solve ended
+     * @param path the path from start to finish (in reverse), null unless solved
+     * @param reason why the solve was aborted, null unless aborted
+     * @param expanded the configurations expanded
+     * @param totalConfigs the configurations created
+     * @param uniqueConfigs the unique configurations created
+     * @param elapsedMillis how long the solve ran
+     */
+    public SolveResult(Status status, Collection<Configuration> path, String reason, long expanded,
+                       long totalConfigs, long uniqueConfigs, long elapsedMillis){
+        this.status = status;
+        this.path = path;
+        this.reason = reason;
+        this.expanded = expanded;
+        this.totalConfigs = totalConfigs;
+        this.uniqueConfigs = uniqueConfigs;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /**
+     * @return how the solve ended
+     */
+    public Status getStatus(){
+        return this.status;
+    }
+
+    /**
+     * @return the path from start to finish (in reverse), null unless solved
+     */
+    public Collection<Configuration> getPath(){
+        return this.path;
+    }
+
+    /**
+     * @return why the solve was aborted, null unless aborted
+     */
+    public String getReason(){
+        return this.reason;
+    }
+
+    /**
+     * @return the configurations expanded
+     */
+    public long getExpanded(){
+        return this.expanded;
+    }
+
+    /**
+     * @return the configurations created
+     */
+    public long getTotalConfigs(){
+        return this.totalConfigs;
+    }
+
+    /**
+     * @return the unique configurations created
+     */
+    public long getUniqueConfigs(){
+        return this.uniqueConfigs;
+    }
+
+    /**
+     * @return how long the solve ran, in milliseconds
+     */
+    public long getElapsedMillis(){
+        return this.elapsedMillis;
+    }
+
+    /**
+     * @return the status, with the reason if aborted
+     */
+    @Override
+    public String toString(){
+        return this.status == Status.ABORTED ? this.status + " (" + this.reason + ")" : this.status.toString();
+    }
+}
@@ -1,21 +1,87 @@
 package puzzles.common.solver;
 import java.util.*;
 import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.stream.IntStream;
+import jdk.jfr.FlightRecorder;
 
 public class Solver {
     private final Queue<Configuration> queue;
-    private final HashMap<Configuration, Configuration> map;
+    private final Map<Configuration, Configuration> map;
+    //the visited keys and parent links, used instead of the map for keyed configurations
+    private StateTable table;
+    //true to key the table on canonical keys, merging symmetric configurations
+    private boolean canonical;
+    //true when the table links hold move codes instead of parent entries
+    private boolean moves;
+    //the number of threads each BFS level is expanded with, 1 is the plain queue search
+    private final int parallelism;
+    //drops generated configurations proven dead, null for none
+    private StatePruner pruner;
+    //finishes the path from configurations it knows the way to a solution from, null for none
+    private EndgameOracle oracle;
+    //told about levels, discoveries and the goal as the search goes, null for nobody
+    private SubmissionPublisher<SearchEvent> publisher;
+    //true to publish every configuration discovered, not just the levels and the goal
+    private boolean discoveries;
+    //the depth of the level being expanded
+    private int depth;
+    //the configurations of the level being expanded not yet taken off the queue
+    private long levelLeft;
+    //the configurations queued for the next level so far
+    private long levelNext;
+    //the System.nanoTime() the current solve started at
+    private long startNanos;
+    //how long the last solve ran, -1 while solving
+    private long elapsedNanos;
+    //the size of each level so far, by depth
+    private long[] frontiers;
+    //the number of levels in frontiers
+    private int levels;
+    //the expansions timed, how long they took, and how much of that was visiting neighbors
+    private long samples;
+    private long sampleNanos;
+    private long sampleVisitNanos;
+    //the flight recorder events of the solve and of the level being expanded, null when not recording
+    //(the event classes are only loaded once the flight recorder is running, loading them costs a few hundred ms)
+    private SolveEvent solveEvent;
+    private LevelEvent levelEvent;
+    //the limits every solve must stay within
+    private SolveBudget budget;
+    //the System.nanoTime() the current solve must stop at
+    private long deadline;
+    //why the last solve gave up, null if it did not
+    private String abortReason;
 
-    private int totalConfigs;
-    private int uniqueConfigs;
+    private long totalConfigs;
+    private long uniqueConfigs;
+    //the configurations taken off the queue and expanded
+    private long expanded;
     /**
      * create a new solver object
      * initiates a queue and a map
      * as well as two counters for the configurations
      */
     public Solver(){
+        this(1);
+    }
+
+    /**
+     * create a new solver object that expands each BFS level across a fork-join pool
+     * the visited/parent map becomes a concurrent map shared by the workers
+     * @param parallelism the number of worker threads, 1 for the single threaded search
+     */
+    public Solver(int parallelism){
+        if(parallelism < 1){
+            throw new IllegalArgumentException("parallelism must be at least 1: " + parallelism);
+        }
+        this.parallelism = parallelism;
         this.queue = new LinkedList<>();
-        this.map = new HashMap<>();
+        this.map = parallelism > 1 ? new ConcurrentHashMap<>() : new HashMap<>();
+        this.budget = new SolveBudget();
+        this.frontiers = new long[16];
         this.totalConfigs = 0;
         this.uniqueConfigs = 0;
     }
@@ -23,15 +89,74 @@ public class Solver {
         start solving the puzzle with the initial value
         add value to the queue and map
         then call the iterative helper function
+        the counters, queue, map and table start over with every solve
         @param value the overall starting configuration
+        @return the path from start to finish (in reverse) or null if there is none,
+        or if the budget ran out first (see {@link #trySolve(Configuration)} to tell them apart)
      */
     public Collection<Configuration> solve(Configuration value){
+        this.startNanos = System.nanoTime();
+        this.elapsedNanos = -1;
+        this.deadline = this.budget.deadline(this.startNanos);
+        this.abortReason = null;
+        this.solveEvent = null;
+        //what an earlier solve left behind would be taken for configurations of this one
+        this.queue.clear();
+        this.map.clear();
+        this.table = null;
+        this.totalConfigs = 0;
+        this.uniqueConfigs = 0;
+        this.expanded = 0;
+        this.samples = 0;
+        this.sampleNanos = 0;
+        this.sampleVisitNanos = 0;
+        if(FlightRecorder.isInitialized()){
+            this.solveEvent = new SolveEvent();
+            this.solveEvent.begin();
+        }
         this.totalConfigs++;
         this.uniqueConfigs++;
+        Collection<Configuration> path;
+        if(this.parallelism > 1){
+            //a concurrent map cannot hold null, the start points to itself instead
+            //(constructPath stops at the start before reading its parent)
+            this.map.put(value, value);
+            path = parallelHelper(value);
+        }else{
+            path = sequentialSolve(value);
+        }
+        this.elapsedNanos = System.nanoTime() - this.startNanos;
+        publish(SearchEvent.Type.FINISHED, path == null ? this.depth : path.size() - 1, 0, null);
+        if(this.solveEvent != null && this.solveEvent.shouldCommit()){
+            this.solveEvent.puzzle = value.getClass().getSimpleName();
+            this.solveEvent.parallelism = this.parallelism;
+            this.solveEvent.solved = path != null;
+            this.solveEvent.totalConfigs = this.totalConfigs;
+            this.solveEvent.uniqueConfigs = this.uniqueConfigs;
+            this.solveEvent.commit();
+        }
+        return path;
+    }
+
+    /**
+     * set up the queue and the map or table for the single threaded search, then search
+     * @param value the overall starting configuration
+     * @return the path from start to finish or null if no path is available
+     */
+    private Collection<Configuration> sequentialSolve(Configuration value){
         //add the conifguration to the queue
         this.queue.add(value);
-        //add the configuration to the maop
-        this.map.put(value, null);
+        if(value instanceof KeyedConfiguration){
+            //keyed configurations are stored as primitive keys, the start has no parent
+            long[] key = key(value);
+            this.table = new StateTable(key.length);
+            this.table.add(key, -1);
+            //a move only undoes back to the same orientation, so canonical keys keep parent entries
+            this.moves = value instanceof ReversibleConfiguration && !this.canonical;
+        }else{
+            //add the configuration to the maop
+            this.map.put(value, null);
+        }
         return helper();
     }
     /**
@@ -43,27 +168,421 @@ public class Solver {
         //get the top off the queue
         Configuration value = this.queue.remove();
         Configuration start = value;
-        //while the value is not the solution
-        while(!value.isSolution()){
+        //configurations enter the table in queue order, so the table entries after this one
+        //are the queue, and keyed configurations are not kept in the queue at all
+        int entry = 0;
+        //configurations that opt in are tested for the goal as soon as they are generated
+        boolean early = start.isGoalCheckedOnGeneration();
+        Configuration[] goal = {null};
+        //the levels are counted so they can be published
+        this.depth = 0;
+        this.levelLeft = 1;
+        this.levelNext = 0;
+        publish(SearchEvent.Type.LEVEL, 0, 1, null);
+        //while the value is not the solution, or the start of an endgame the oracle knows
+        while(!value.isSolution() && !knowsSolution(value)){
+            if(outOfBudget()){
+                return null;
+            }
+            //one expansion in 256 is timed, to split the time between generating and visiting
+            boolean sampled = (this.expanded & 0xFF) == 0;
+            long began = sampled ? System.nanoTime() : 0;
+            this.expanded++;
             //add the neighbors to the queue
-            for (Configuration config:
-                value.getNeighbors()) {
+            Configuration parent = value;
+            int parentEntry = entry;
+            value.forEachNeighbor(config -> {
+                if(goal[0] != null){
+                    return;
+                }
                 this.totalConfigs++;
-                if(!map.containsKey(config)){
+                if(sampled ? timedVisit(config, parent, parentEntry) : visit(config, parent, parentEntry)){
                     this.uniqueConfigs++;
-                    this.queue.add(config);
-                    map.put(config, value);
+                    this.levelNext++;
+                    if(this.discoveries){
+                        publish(SearchEvent.Type.DISCOVERED, this.depth + 1, 0, config);
+                    }
+                    //the first solution generated is the first one that would come off the queue
+                    if(early && config.isSolution() || knowsSolution(config)){
+                        goal[0] = config;
+                    }else if(this.table == null){
+                        this.queue.add(config);
+                    }
                 }
+            });
+            if(sampled){
+                this.samples++;
+                this.sampleNanos += System.nanoTime() - began;
+            }
+            if(goal[0] != null){
+                return goalPath(start, goal[0]);
+            }
+            //the last configuration of a level was expanded, the queue now holds exactly the next level
+            if(--this.levelLeft == 0){
+                this.depth++;
+                this.levelLeft = this.levelNext;
+                this.levelNext = 0;
+                if(this.levelLeft > 0){
+                    publish(SearchEvent.Type.LEVEL, this.depth, this.levelLeft, null);
+                }
+            }
+            entry++;
+            if(this.table != null){
+                if(entry == this.table.size()){
+                    return null;
+                }
+                value = ((KeyedConfiguration) start).fromKey(this.table.getKey(entry));
+            }else{
+                try {
+                    value = this.queue.remove();
+                }catch (NoSuchElementException e){
+                    return null;
+                }
+            }
+
+        }
+        return goalPath(start, value);
+    }
+
+    /**
+     * @param config a generated configuration
+     * @return true if the oracle knows the way from config to a solution
+     */
+    private boolean knowsSolution(Configuration config){
+        return this.oracle != null && this.oracle.knowsSolution(config);
+    }
 
+    /**
+     * Construct the path to a goal, finished by the oracle's moves if the goal is not a solution itself,
+     * and publish the solution at the end of it
+     * @param start the overall starting configuration
+     * @param found a solution, or a configuration the oracle knows the way to a solution from
+     * @return the path from start to the solution (in reverse)
+     */
+    private Collection<Configuration> goalPath(Configuration start, Configuration found){
+        Collection<Configuration> path = constructPath(start, found);
+        //with canonical keys found may be a rotation of the board the path really ends on,
+        //so the oracle finishes from the path's own last board
+        Configuration last = path.iterator().next();
+        if(!last.isSolution()){
+            LinkedList<Configuration> finished = new LinkedList<>(path);
+            List<Configuration> rest = this.oracle.complete(last);
+            for(int i = 1; i < rest.size(); i++){
+                finished.addFirst(rest.get(i));
             }
-            try {
-                value = this.queue.remove();
-            }catch (NoSuchElementException e){
-                return null;
+            path = finished;
+        }
+        publish(SearchEvent.Type.GOAL, path.size() - 1, 0, path.iterator().next());
+        return path;
+    }
+
+    /**
+     * Check the budget before expanding another configuration.
+     * The clock, heap and cancellation token are only looked at every few thousand expansions.
+     * @return true if the solve must give up, with the reason kept for {@link #trySolve(Configuration)}
+     */
+    private boolean outOfBudget(){
+        String reason = this.budget.checkExpanded(this.expanded);
+        //a parallel solve only checks between levels, so it looks at everything each time
+        if(reason == null && (this.parallelism > 1 || (this.expanded & 0xFFF) == 0)){
+            reason = this.budget.checkOthers(this.deadline);
+        }
+        this.abortReason = reason;
+        return reason != null;
+    }
+
+    /**
+     * Solve within the budget, telling apart a search that found nothing from one that gave up
+     * @param value the overall starting configuration
+     * @return how the solve ended, with the path if it was solved
+     */
+    public SolveResult trySolve(Configuration value){
+        long start = System.nanoTime();
+        Collection<Configuration> path = solve(value);
+        SolveResult.Status status;
+        if(path != null){
+            status = SolveResult.Status.SOLVED;
+        }else if(this.abortReason != null){
+            status = SolveResult.Status.ABORTED;
+        }else{
+            status = SolveResult.Status.NO_SOLUTION;
+        }
+        return new SolveResult(status, path, this.abortReason, this.expanded, this.totalConfigs,
+                this.uniqueConfigs, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Publish search events while solving: each level as it starts with its size, the goal when it is
+     * found, and the end of the search. Events are submitted from the solving thread, which waits
+     * when a subscriber falls too far behind. The solver never closes the publisher.
+     * @param publisher the publisher to submit events to, null for none
+     * @param discoveries true to also publish every configuration the first time it is seen
+     */
+    public void setPublisher(SubmissionPublisher<SearchEvent> publisher, boolean discoveries){
+        this.publisher = publisher;
+        this.discoveries = discoveries;
+    }
+
+    /**
+     * Record an event in the metrics and the flight recorder, and hand it to the publisher if there is one
+     * @param type the kind of event
+     * @param depth the number of moves from the start
+     * @param frontier the configurations on the level, for a level event
+     * @param config the configuration discovered or found to be a solution, or null
+     */
+    private void publish(SearchEvent.Type type, int depth, long frontier, Configuration config){
+        if(type == SearchEvent.Type.LEVEL){
+            if(depth == 0){
+                this.levels = 0;
+            }
+            if(this.levels == this.frontiers.length){
+                this.frontiers = Arrays.copyOf(this.frontiers, this.levels * 2);
+            }
+            this.frontiers[this.levels++] = frontier;
+            //the level before is complete
+            endLevel();
+            if(FlightRecorder.isInitialized()){
+                this.levelEvent = new LevelEvent();
+                this.levelEvent.depth = depth;
+                this.levelEvent.frontier = frontier;
+                this.levelEvent.begin();
+            }
+        }else if(type == SearchEvent.Type.GOAL && FlightRecorder.isInitialized()){
+            GoalEvent goal = new GoalEvent();
+            if(goal.shouldCommit()){
+                goal.depth = depth;
+                goal.uniqueConfigs = this.uniqueConfigs;
+                goal.commit();
+            }
+        }else if(type == SearchEvent.Type.FINISHED){
+            endLevel();
+        }
+        if(this.publisher != null){
+            this.publisher.submit(new SearchEvent(type, depth, frontier, this.uniqueConfigs, config));
+        }
+    }
+
+    /**
+     * commit the flight recorder event of the level being expanded, if there is one
+     */
+    private void endLevel(){
+        if(this.levelEvent != null && this.levelEvent.shouldCommit()){
+            this.levelEvent.uniqueConfigs = this.uniqueConfigs;
+            this.levelEvent.commit();
+        }
+        this.levelEvent = null;
+    }
+
+    /**
+     * @return what was measured during the last solve, or the one running now
+     */
+    public SolverMetrics getMetrics(){
+        long elapsed = this.elapsedNanos < 0 ? System.nanoTime() - this.startNanos : this.elapsedNanos;
+        long generate = -1;
+        long visit = -1;
+        if(this.sampleNanos > 0){
+            //split the whole time the way the timed expansions split
+            visit = (long) (elapsed * ((double) this.sampleVisitNanos / this.sampleNanos));
+            generate = elapsed - visit;
+        }
+        return new SolverMetrics(this.totalConfigs, this.uniqueConfigs, this.expanded, elapsed,
+                Arrays.copyOf(this.frontiers, this.levels), this.table == null ? Double.NaN : this.table.getLoad(),
+                this.table == null ? 0 : this.table.getLookups(), this.table == null ? 0 : this.table.getCollisions(),
+                generate, visit);
+    }
+
+    /**
+     * Skip generated configurations the pruner proves dead. Must be set before solving.
+     * @param pruner the pruner, null to search every configuration
+     */
+    public void setPruner(StatePruner pruner){
+        this.pruner = pruner;
+    }
+
+    /**
+     * Stop at the first configuration generated that the oracle knows the way to a solution from,
+     * and finish the path with the oracle's moves. Must be set before solving.
+     * @param oracle the oracle, null to search all the way to a solution
+     */
+    public void setOracle(EndgameOracle oracle){
+        this.oracle = oracle;
+    }
+
+    /**
+     * @param config a generated configuration
+     * @return true if the pruner proves config dead
+     */
+    private boolean isPruned(Configuration config){
+        return this.pruner != null && this.pruner.isDead(config);
+    }
+
+    /**
+     * Limit how far every later solve may go
+     * @param budget the limits, a new SolveBudget for none
+     */
+    public void setBudget(SolveBudget budget){
+        this.budget = budget;
+    }
+
+    /**
+     * {@link #visit(Configuration, Configuration, int)}, timing how long it takes
+     * @param config the neighbor being visited
+     * @param value the configuration it was generated from
+     * @param entry the table entry of value
+     * @return true if config had not been seen before and was not pruned
+     */
+    private boolean timedVisit(Configuration config, Configuration value, int entry){
+        long began = System.nanoTime();
+        boolean fresh = visit(config, value, entry);
+        this.sampleVisitNanos += System.nanoTime() - began;
+        return fresh;
+    }
+
+    /**
+     * record config as seen, with value as its parent, unless the pruner proves it dead
+     * @param config the neighbor being visited
+     * @param value the configuration it was generated from
+     * @param entry the table entry of value
+     * @return true if config had not been seen before and was not pruned
+     */
+    private boolean visit(Configuration config, Configuration value, int entry){
+        if(this.table != null){
+            long[] key = key(config);
+            //the pruner only looks at configurations not seen before, dead ones are left out of the table
+            if(this.pruner != null && (this.table.find(key) >= 0 || this.pruner.isDead(config))){
+                return false;
             }
+            int link = this.moves ? ((ReversibleConfiguration) config).getMove() : entry;
+            return this.table.add(key, link) >= 0;
+        }
+        if(!map.containsKey(config) && !isPruned(config)){
+            map.put(config, value);
+            return true;
+        }
+        return false;
+    }
 
+    /**
+     * the level synchronous helper used when parallelism is above 1
+     * every level is expanded in parallel, and each newly discovered configuration keeps
+     * the parent (and neighbor position) that comes first in queue order. The next level is then
+     * sorted into the same order the single threaded queue would hold it in, so the path and
+     * the total/unique counts match helper() exactly, including when goals are tested at generation.
+     * Keyed configurations are kept in the concurrent map, not the state table, so they are never
+     * stored by canonical key (setCanonical refuses a parallel solver).
+     * @param start the overall starting configuration
+     * @return the path from start to finish or null if no path is available
+     */
+    private Collection<Configuration> parallelHelper(Configuration start){
+        ForkJoinPool pool = new ForkJoinPool(this.parallelism);
+        boolean early = start.isGoalCheckedOnGeneration();
+        try {
+            Configuration[] level = {start};
+            for(this.depth = 0; level.length > 0; this.depth++){
+                publish(SearchEvent.Type.LEVEL, this.depth, level.length, null);
+                //the budget is checked between levels, so a solve can pass it by up to one level
+                if(outOfBudget()){
+                    return null;
+                }
+                Configuration[] current = level;
+                //the first solution in queue order is the one helper() would dequeue
+                int goal = pool.submit(() -> IntStream.range(0, current.length).parallel()
+                        .filter(i -> current[i].isSolution() || knowsSolution(current[i])).findFirst().orElse(-1)).join();
+                //everything queued before the goal is still expanded, as it is in helper()
+                int toExpand = goal >= 0 ? goal : current.length;
+                ConcurrentHashMap<Configuration, Long> discovered = new ConcurrentHashMap<>();
+                long[] generated = new long[toExpand];
+                pool.submit(() -> IntStream.range(0, toExpand).parallel()
+                        .forEach(i -> generated[i] = expand(current, i, discovered))).join();
+                Configuration found = early || this.oracle != null ? firstSolution(pool, discovered, early) : null;
+                if(found != null){
+                    long order = discovered.get(found);
+                    int parent = (int) (order >>> 32);
+                    //helper() stops expanding once it generates found
+                    this.expanded += parent + 1;
+                    //only count what helper() generates before it stops at found
+                    this.totalConfigs += (Arrays.stream(generated, 0, parent).sum() + (order & 0xFFFFFFFFL) + 1);
+                    this.uniqueConfigs += discovered.values().stream().filter(o -> o <= order).count();
+                    this.map.put(found, current[parent]);
+                    if(this.discoveries){
+                        //what helper() discovers before it stops at found, in queue order
+                        discovered.entrySet().stream().filter(e -> e.getValue() <= order)
+                                .sorted(Map.Entry.comparingByValue())
+                                .forEach(e -> publish(SearchEvent.Type.DISCOVERED, this.depth + 1, 0, e.getKey()));
+                    }
+                    return goalPath(start, found);
+                }
+                this.expanded += toExpand;
+                this.totalConfigs += Arrays.stream(generated).sum();
+                this.uniqueConfigs += discovered.size();
+                if(goal >= 0){
+                    return goalPath(start, current[goal]);
+                }
+                level = nextLevel(pool, current, discovered);
+                if(this.discoveries){
+                    //published in queue order, the same order helper() discovers them in
+                    for(Configuration config: level){
+                        publish(SearchEvent.Type.DISCOVERED, this.depth + 1, 0, config);
+                    }
+                }
+            }
+            return null;
+        } finally {
+            pool.shutdown();
         }
-        return constructPath(start, value);
+    }
+
+    /**
+     * expand one configuration of a level, recording every neighbor not yet in the map
+     * with its queue order: the parent's position in the high half, the neighbor's position in the low half
+     * @param level the level being expanded
+     * @param index the position of the configuration to expand
+     * @param discovered the configurations found for the next level, with their lowest queue order
+     * @return the number of neighbors generated
+     */
+    private long expand(Configuration[] level, int index, ConcurrentHashMap<Configuration, Long> discovered){
+        long[] generated = {0};
+        level[index].forEachNeighbor(config -> {
+            long order = ((long) index << 32) | generated[0];
+            generated[0]++;
+            //the map is only written between levels, so reading it here is safe
+            if(!this.map.containsKey(config) && !isPruned(config)){
+                discovered.merge(config, order, Math::min);
+            }
+        });
+        return generated[0];
+    }
+
+    /**
+     * @param pool the pool the level is processed on
+     * @param discovered the configurations found with their lowest queue order
+     * @param early true if solutions are goals as soon as they are generated
+     * @return the solution, or configuration the oracle knows the way to a solution from,
+     * first in queue order, or null if none was discovered
+     */
+    private Configuration firstSolution(ForkJoinPool pool, ConcurrentHashMap<Configuration, Long> discovered, boolean early){
+        return pool.submit(() -> discovered.entrySet().parallelStream()
+                .filter(entry -> early && entry.getKey().isSolution() || knowsSolution(entry.getKey()))
+                .min(Map.Entry.comparingByValue())
+                .map(Map.Entry::getKey)
+                .orElse(null)).join();
+    }
+
+    /**
+     * sort the discovered configurations into queue order and record their parents in the map
+     * @param pool the pool the level is processed on
+     * @param level the level that was just expanded
+     * @param discovered the configurations found with their lowest queue order
+     * @return the next level, in the order helper() would dequeue it
+     */
+    private Configuration[] nextLevel(ForkJoinPool pool, Configuration[] level, ConcurrentHashMap<Configuration, Long> discovered){
+        Configuration[] next = pool.submit(() -> discovered.entrySet().parallelStream()
+                .sorted(Map.Entry.comparingByValue())
+                .map(Map.Entry::getKey)
+                .toArray(Configuration[]::new)).join();
+        pool.submit(() -> Arrays.stream(next).parallel()
+                .forEach(config -> this.map.put(config, level[(int) (discovered.get(config) >>> 32)]))).join();
+        return next;
     }
 
     /**
@@ -73,6 +592,9 @@ public class Solver {
      * @return the shortest path found from the start to finish (in reverse)
      */
     public Collection<Configuration> constructPath(Configuration startNode, Configuration finishNode){
+        if(this.table != null){
+            return constructTablePath(startNode, finishNode);
+        }
         Collection<Configuration> path = new LinkedList<>();
         if(map.containsKey(finishNode)) {
             Configuration currNode = finishNode;
@@ -85,11 +607,82 @@ public class Solver {
         return path;
     }
 
+    /**
+     * Construct the shortest path out of the table, which only holds keys.
+     * The keys from finish back to start are followed through the parent links,
+     * then the configurations are found again by stepping forward from the start
+     * to the neighbor with each next key. With canonical keys the table holds one
+     * orientation of each configuration, and stepping forward from the real start
+     * turns it back into moves on the original board. Reversible configurations
+     * store the move that produced them instead, and are undone from the finish.
+     * @param startNode the starting configuration
+     * @param finishNode the ending configuration
+     * @return the shortest path found from the start to finish (in reverse)
+     */
+    private Collection<Configuration> constructTablePath(Configuration startNode, Configuration finishNode){
+        LinkedList<Configuration> path = new LinkedList<>();
+        int entry = this.table.find(key(finishNode));
+        if(entry < 0){
+            return path;
+        }
+        if(this.moves){
+            //undo each stored move, from the finish back to the start
+            Configuration currNode = finishNode;
+            path.add(currNode);
+            for(int move = this.table.getLink(entry); move >= 0; move = this.table.getLink(this.table.find(key(currNode)))){
+                currNode = ((ReversibleConfiguration) currNode).undoMove(move);
+                path.add(currNode);
+            }
+            return path;
+        }
+        //the keys from finish back to (not including) the start
+        LinkedList<long[]> keys = new LinkedList<>();
+        for(; this.table.getLink(entry) >= 0; entry = this.table.getLink(entry)){
+            keys.addFirst(this.table.getKey(entry));
+        }
+        Configuration currNode = startNode;
+        path.addFirst(currNode);
+        for(long[] key: keys){
+            for(Configuration config: currNode.getNeighbors()){
+                if(Arrays.equals(key(config), key)){
+                    currNode = config;
+                    break;
+                }
+            }
+            path.addFirst(currNode);
+        }
+        return path;
+    }
+
+    /**
+     * @param config a keyed configuration
+     * @return the key config is stored under in the table
+     */
+    private long[] key(Configuration config){
+        KeyedConfiguration keyed = (KeyedConfiguration) config;
+        return this.canonical ? keyed.getCanonicalKey() : keyed.getKey();
+    }
+
+    /**
+     * Merge configurations that are symmetric to each other, by storing keyed configurations
+     * under {@link KeyedConfiguration#getCanonicalKey()}. Must be set before solving.
+     * Only the single threaded search keeps keyed configurations in a table, the parallel search
+     * keeps them in its concurrent map and cannot merge them.
+     * @param canonical true to merge symmetric configurations
+     * @throws IllegalStateException if canonical is true and the solver is parallel
+     */
+    public void setCanonical(boolean canonical){
+        if(canonical && this.parallelism > 1){
+            throw new IllegalStateException("symmetric configurations are only merged by the single threaded search");
+        }
+        this.canonical = canonical;
+    }
+
     /**
      *
      * @return the total configurations created
      */
-    public int getTotalConfigs(){
+    public long getTotalConfigs(){
         return this.totalConfigs;
     }
 
@@ -97,7 +690,7 @@ public class Solver {
      *
      * @return the total ynique configurations
      */
-    public int getUniqueConfigs(){
+    public long getUniqueConfigs(){
         return this.uniqueConfigs;
     }
 }
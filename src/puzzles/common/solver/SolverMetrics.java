@@ -0,0 +1,140 @@
+package puzzles.common.solver;
+
+import java.util.Arrays;
+
+/**
+ * What a {@link Solver} measured during its last solve.
+ * The split between generating neighbors and visiting them is an estimate: one expansion in 256
+ * is timed, and the whole solve time is split the same way. Only the single threaded search takes it.
+ *
+ * @author Ryleigh Fuller
+ */
+public class SolverMetrics {
+    private final long totalConfigs;
+    private final long uniqueConfigs;
+    private final long expanded;
+    private final long elapsedNanos;
+    //the size of each level, by depth
+    private final long[] frontiers;
+    //the fraction of the table's index in use, NaN without a table
+    private final double tableLoad;
+    private final long lookups;
+    private final long collisions;
+    //the estimated time spent generating neighbors, -1 if not sampled
+    private final long generateNanos;
+    //the estimated time spent checking and recording neighbors as seen, -1 if not sampled
+    private final long visitNanos;
+
+    /**
+     * @param totalConfigs the configurations created
+     * @param uniqueConfigs the unique configurations created
+     * @param expanded the configurations expanded
+     * @param elapsedNanos how long the solve ran
+     * @param frontiers the size of each level, by depth
+     * @param tableLoad the fraction of the table's index in use, NaN without a table
+     * @param lookups the table finds and adds
+     * @param collisions the occupied slots stepped past by those lookups
+     * @param generateNanos the estimated time spent generating neighbors, -1 if not sampled
+     * @param visitNanos the estimated time spent checking and recording neighbors, -1 if not sampled
+     */
+    public SolverMetrics(long totalConfigs, long uniqueConfigs, long expanded, long elapsedNanos, long[] frontiers,
+                         double tableLoad, long lookups, long collisions, long generateNanos, long visitNanos){
+        this.totalConfigs = totalConfigs;
+        this.uniqueConfigs = uniqueConfigs;
+        this.expanded = expanded;
+        this.elapsedNanos = elapsedNanos;
+        this.frontiers = frontiers.clone();
+        this.tableLoad = tableLoad;
+        this.lookups = lookups;
+        this.collisions = collisions;
+        this.generateNanos = generateNanos;
+        this.visitNanos = visitNanos;
+    }
+
+    /**
+     * @return the configurations created
+     */
+    public long getTotalConfigs(){
+        return this.totalConfigs;
+    }
+
+    /**
+     * @return the unique configurations created
+     */
+    public long getUniqueConfigs(){
+        return this.uniqueConfigs;
+    }
+
+    /**
+     * @return the configurations expanded
+     */
+    public long getExpanded(){
+        return this.expanded;
+    }
+
+    /**
+     * @return how long the solve ran, in nanoseconds
+     */
+    public long getElapsedNanos(){
+        return this.elapsedNanos;
+    }
+
+    /**
+     * @return unique configurations per second
+     */
+    public double getStatesPerSecond(){
+        return this.elapsedNanos == 0 ? 0 : this.uniqueConfigs * 1e9 / this.elapsedNanos;
+    }
+
+    /**
+     * @return the size of each level, by depth
+     */
+    public long[] getFrontiers(){
+        return this.frontiers.clone();
+    }
+
+    /**
+     * @return the fraction of the table's index in use, NaN if the solve used a map
+     */
+    public double getTableLoad(){
+        return this.tableLoad;
+    }
+
+    /**
+     * @return the average occupied slots stepped past per table lookup, NaN if the solve used a map
+     */
+    public double getCollisionRate(){
+        return this.lookups == 0 ? Double.NaN : (double) this.collisions / this.lookups;
+    }
+
+    /**
+     * @return the estimated time spent generating neighbors, in nanoseconds, -1 if not sampled
+     */
+    public long getGenerateNanos(){
+        return this.generateNanos;
+    }
+
+    /**
+     * @return the estimated time spent checking and recording neighbors as seen, in nanoseconds, -1 if not sampled
+     */
+    public long getVisitNanos(){
+        return this.visitNanos;
+    }
+
+    /**
+     * @return the metrics on a few lines
+     */
+    @Override
+    public String toString(){
+        String result = String.format("expanded %d, %.0f states/s in %d ms%nfrontiers %s",
+                this.expanded, getStatesPerSecond(), this.elapsedNanos / 1_000_000, Arrays.toString(this.frontiers));
+        if(!Double.isNaN(this.tableLoad)){
+            result += String.format("%ntable load %.2f, %.3f collisions per lookup", this.tableLoad, getCollisionRate());
+        }
+        if(this.generateNanos >= 0){
+            result += String.format("%ngenerating %d ms, visiting %d ms (estimated)",
+                    this.generateNanos / 1_000_000, this.visitNanos / 1_000_000);
+        }
+        return result;
+    }
+}
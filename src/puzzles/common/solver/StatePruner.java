@@ -0,0 +1,19 @@
+package puzzles.common.solver;
+
+/**
+ * A cheap test a solver runs on every configuration it generates, to drop the ones
+ * that can be proven to have no solution without searching below them.
+ * Pruning only removes dead configurations, so it never changes the path found,
+ * only how many configurations are searched to find it.
+ *
+ * @author Ryleigh Fuller
+ */
+public interface StatePruner {
+    /**
+     * Must only return true when config has no solution, and must be safe to call
+     * from several threads at once.
+     * @param config a configuration just generated
+     * @return true if config is proven dead and can be skipped
+     */
+    boolean isDead(Configuration config);
+}
@@ -0,0 +1,177 @@
+package puzzles.common.solver;
+
+import java.util.Arrays;
+
+/**
+ * An open-addressing hash table of fixed width long keys, each with an int link.
+ * Entries are numbered in the order they are added, and the keys and links are
+ * stored in flat primitive arrays, so there is no object per entry.
+ *
+ * @author Ryleigh Fuller
+ */
+public class StateTable {
+    //the number of longs in every key
+    private final int width;
+    //the keys in the order they were added, width longs each
+    private long[] keys;
+    //the link of each entry
+    private int[] links;
+    //the index: entry number plus one, 0 for an empty slot
+    private int[] slots;
+    //the number of entries
+    private int size;
+    //the number of finds and adds
+    private long lookups;
+    //the occupied slots stepped past by finds and adds that did not match
+    private long collisions;
+
+    /**
+     * Create an empty table
+     * @param width the number of longs in every key
+     */
+    public StateTable(int width){
+        this.width = width;
+        this.keys = new long[16 * width];
+        this.links = new int[16];
+        this.slots = new int[32];
+        this.size = 0;
+    }
+
+    /**
+     * Find a key
+     * @param key the key to look for
+     * @return the entry number of the key or -1 if it is not in the table
+     */
+    public int find(long[] key){
+        int mask = this.slots.length - 1;
+        this.lookups++;
+        for(int slot = hash(key, 0) & mask; this.slots[slot] != 0; slot = (slot + 1) & mask){
+            int entry = this.slots[slot] - 1;
+            if(matches(entry, key)){
+                return entry;
+            }
+            this.collisions++;
+        }
+        return -1;
+    }
+
+    /**
+     * Add a key if it is not already in the table
+     * @param key the key to add, copied into the table
+     * @param link the link to store with it
+     * @return the entry number of the new key, or -1 if the key was already in the table
+     */
+    public int add(long[] key, int link){
+        int mask = this.slots.length - 1;
+        int slot = hash(key, 0) & mask;
+        this.lookups++;
+        for(; this.slots[slot] != 0; slot = (slot + 1) & mask){
+            if(matches(this.slots[slot] - 1, key)){
+                return -1;
+            }
+            this.collisions++;
+        }
+        if(this.size == this.links.length){
+            this.keys = Arrays.copyOf(this.keys, this.keys.length * 2);
+            this.links = Arrays.copyOf(this.links, this.links.length * 2);
+        }
+        int entry = this.size++;
+        System.arraycopy(key, 0, this.keys, entry * this.width, this.width);
+        this.links[entry] = link;
+        this.slots[slot] = entry + 1;
+        //keep the index at most half full
+        if(this.size * 2 > this.slots.length){
+            rehash();
+        }
+        return entry;
+    }
+
+    /**
+     * @param entry an entry number
+     * @return a copy of the entry's key
+     */
+    public long[] getKey(int entry){
+        return Arrays.copyOfRange(this.keys, entry * this.width, (entry + 1) * this.width);
+    }
+
+    /**
+     * @param entry an entry number
+     * @return the entry's link
+     */
+    public int getLink(int entry){
+        return this.links[entry];
+    }
+
+    /**
+     * @return the number of entries
+     */
+    public int size(){
+        return this.size;
+    }
+
+    /**
+     * @return the fraction of index slots in use
+     */
+    public double getLoad(){
+        return (double) this.size / this.slots.length;
+    }
+
+    /**
+     * @return the number of finds and adds
+     */
+    public long getLookups(){
+        return this.lookups;
+    }
+
+    /**
+     * @return the occupied slots stepped past by finds and adds before they ended
+     */
+    public long getCollisions(){
+        return this.collisions;
+    }
+
+    /**
+     * double the index and put every entry back in
+     */
+    private void rehash(){
+        this.slots = new int[this.slots.length * 2];
+        int mask = this.slots.length - 1;
+        for(int entry = 0; entry < this.size; entry++){
+            int slot = hash(this.keys, entry * this.width) & mask;
+            while(this.slots[slot] != 0){
+                slot = (slot + 1) & mask;
+            }
+            this.slots[slot] = entry + 1;
+        }
+    }
+
+    /**
+     * @param entry an entry number
+     * @param key a key
+     * @return true if the entry holds the key
+     */
+    private boolean matches(int entry, long[] key){
+        int start = entry * this.width;
+        for(int i = 0; i < this.width; i++){
+            if(this.keys[start + i] != key[i]){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * mix the longs of a key so neighboring states spread over the index
+     * @param words the array holding the key
+     * @param start the first long of the key
+     * @return the hash
+     */
+    private int hash(long[] words, int start){
+        long h = 0;
+        for(int i = 0; i < this.width; i++){
+            h = (h ^ words[start + i]) * 0x9E3779B97F4A7C15L;
+            h ^= h >>> 32;
+        }
+        return (int) (h ^ (h >>> 29));
+    }
+}
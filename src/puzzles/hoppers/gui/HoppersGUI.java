@@ -1,4 +1,5 @@
 package puzzles.hoppers.gui;
+import javafx.application.Platform;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
 import javafx.scene.Scene;
@@ -112,7 +113,8 @@ public class HoppersGUI extends Application implements Observer<HoppersModel, St
         });
         Button hint = new Button("Hint");
         btns.setAlignment(Pos.CENTER);
-        hint.setOnAction(event -> this.model.hint());
+        //the search runs in the background so the window keeps responding
+        hint.setOnAction(event -> this.model.hintAsync());
         btns.getChildren().addAll(load, reset, hint);
         //add to VBox
         screen.getChildren().addAll(this.label, board, btns);
@@ -194,6 +196,11 @@ public class HoppersGUI extends Application implements Observer<HoppersModel, St
      */
     @Override
     public void update(HoppersModel hoppersModel, String msg){
+        //a background hint reports from its own thread, the screen may only change on the JavaFX thread
+        if(!Platform.isFxApplicationThread()){
+            Platform.runLater(() -> update(hoppersModel, msg));
+            return;
+        }
         //if a new file has been loaded, start again
         if(msg.contains("Loaded:")){
             try{
@@ -1,45 +1,127 @@
 package puzzles.hoppers.model;
 
 import puzzles.common.solver.Configuration;
+import puzzles.common.solver.KeyedConfiguration;
+import puzzles.common.solver.ReversibleConfiguration;
 
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
 import java.util.*;
+import java.util.function.Consumer;
 
 /**
  * The representation of a hopper configuration
+ * Water never changes, so the board is a shared {@link HoppersGeometry} plus
+ * two bit masks over its playable cells: the green frogs and the red frog.
+ * Each config also remembers the jump that produced it, as an index into the
+ * geometry's jump table, so a solver can walk a path backward by undoing jumps.
  *
  * @author Ryleigh Fuller
  */
 
-public class HoppersConfig implements Configuration{
-    //the row dimension
-    private final int row;
-    //the col dimension
-    private final int col;
-    //the game board
-    private final String[][] board;
+public class HoppersConfig implements KeyedConfiguration, ReversibleConfiguration{
+    //the size and water of the board, shared by every configuration of the puzzle
+    private final HoppersGeometry geometry;
+    //the green frog mask followed by the red frog mask, geometry.getWords() longs each
+    private final long[] bits;
+    //the Zobrist hash: the geometry's key of every frog xor-ed together
+    private final long hash;
+    //the number of green frogs left
+    private final int greens;
+    //the geometry's index of the jump that produced this config, -1 if it was not a table jump
+    private final int move;
     /**
-     Create the initial Hoppers configuration
+     Create the initial Hoppers configuration and print it
      @param filename the file to get information from
      */
     public HoppersConfig(String filename) throws IOException {
-        BufferedReader br = new BufferedReader(new FileReader(filename));
+        this(readFile(filename));
+        System.out.println(this.toString());
+    }
+
+    /**
+     Create the initial Hoppers configuration from a board in the puzzle file format, without printing it
+     @param br the reader to get the rows/cols line and the board from, left open
+     */
+    public HoppersConfig(BufferedReader br) throws IOException {
+        this(readBoard(br));
+    }
+
+    /**
+     Create the initial Hoppers configuration from a board of "*", ".", "G" and "R" spots
+     @param board the spots of the board
+     */
+    private HoppersConfig(String[][] board){
+        //the water forms the geometry, the frogs form the masks
+        this.geometry = new HoppersGeometry(board);
+        this.bits = new long[2 * this.geometry.getWords()];
+        for(int i = 0; i < this.geometry.getRow(); i++){
+            for(int j = 0; j < this.geometry.getCol(); j++){
+                int cell = this.geometry.cell(i, j);
+                if(Objects.equals(board[i][j], "G")){
+                    set(this.bits, 0, cell);
+                }else if(Objects.equals(board[i][j], "R")){
+                    set(this.bits, this.geometry.getWords(), cell);
+                }
+            }
+        }
+        this.hash = zobrist(this.geometry, this.bits);
+        this.greens = count(this.geometry, this.bits);
+        this.move = -1;
+    }
+
+    /**
+     * Read the board of a puzzle file and close it
+     * @param filename the file to get information from
+     * @return the spots of the board
+     */
+    private static String[][] readFile(String filename) throws IOException {
+        try(BufferedReader br = new BufferedReader(new FileReader(filename))){
+            return readBoard(br);
+        }
+    }
+
+    /**
+     * Read a board in the puzzle file format
+     * @param br the reader to get the rows/cols line and the board from
+     * @return the spots of the board
+     * @throws IOException if the reader fails or the board is cut short or malformed
+     */
+    private static String[][] readBoard(BufferedReader br) throws IOException {
         //the first line will contain the rows/cols of the grid
-        String[] rowsCols = br.readLine().split(" ");
-        this.row = Integer.parseInt(rowsCols[0]);
-        this.col = Integer.parseInt(rowsCols[1]);
-        //create the board with row and col
-        this.board = new String[this.row][this.col];
-        //populate the board
-        for(int i = 0; i < this.row; i++){
-            String[] rowString = br.readLine().split(" ");
-            for(int j = 0; j < this.col; j++){
-                this.board[i][j] = rowString[j];
+        String line = br.readLine();
+        if(line == null){
+            throw new IOException("missing the rows/cols line");
+        }
+        String[] rowsCols = line.trim().split("\\s+");
+        int row;
+        int col;
+        try{
+            row = Integer.parseInt(rowsCols[0]);
+            col = Integer.parseInt(rowsCols[1]);
+        }catch(NumberFormatException | ArrayIndexOutOfBoundsException e){
+            throw new IOException("bad rows/cols line: " + line);
+        }
+        if(row < 0 || col < 0){
+            throw new IOException("bad rows/cols line: " + line);
+        }
+        //read the board with row and col
+        String[][] board = new String[row][col];
+        for(int i = 0; i < row; i++){
+            line = br.readLine();
+            if(line == null){
+                throw new IOException("missing board row " + i);
+            }
+            String[] rowString = line.trim().split("\\s+");
+            if(rowString.length < col){
+                throw new IOException("short board row " + i + ": " + line);
+            }
+            for(int j = 0; j < col; j++){
+                board[i][j] = rowString[j];
             }
         }
-        System.out.println(this.toString());
+        return board;
     }
 
     /**
@@ -47,138 +129,256 @@ public class HoppersConfig implements Configuration{
      * @param other configuration to copy from
      */
     public HoppersConfig(HoppersConfig other){
-        //copy over the size
-        this.col = other.col;
-        this.row = other.row;
-        //create the new board with row and col
-        this.board = new String[this.row][this.col];
-        //copy the information
-        for(int i = 0; i < this.row; i++){
-            for(int j = 0; j < this.col; j++){
-                this.board[i][j] = other.board[i][j];
+        this(other.geometry, other.bits.clone(), other.hash, other.greens, other.move);
+    }
+
+    /**
+     * Create a config from its geometry and masks
+     * @param geometry the board shape
+     * @param bits the green mask followed by the red mask, not copied
+     * @param hash the Zobrist hash of the masks
+     * @param greens the number of green frogs in the masks
+     * @param move the index of the jump that produced the config, or -1
+     */
+    private HoppersConfig(HoppersGeometry geometry, long[] bits, long hash, int greens, int move){
+        this.geometry = geometry;
+        this.bits = bits;
+        this.hash = hash;
+        this.greens = greens;
+        this.move = move;
+    }
+
+    /**
+     * Count the green frogs from scratch, only needed when a config is not made by a jump
+     * @param geometry the board shape
+     * @param bits the green mask followed by the red mask
+     * @return the number of green frogs
+     */
+    private static int count(HoppersGeometry geometry, long[] bits){
+        int greens = 0;
+        for(int w = 0; w < geometry.getWords(); w++){
+            greens += Long.bitCount(bits[w]);
+        }
+        return greens;
+    }
+
+    /**
+     * Hash masks from scratch, only needed when a config is not made by a jump
+     * @param geometry the board shape
+     * @param bits the green mask followed by the red mask
+     * @return the Zobrist hash of the masks
+     */
+    private static long zobrist(HoppersGeometry geometry, long[] bits){
+        long hash = 0;
+        int words = geometry.getWords();
+        for(int w = 0; w < bits.length; w++){
+            for(long frogs = bits[w]; frogs != 0; frogs &= frogs - 1){
+                int cell = (w % words) * 64 + Long.numberOfTrailingZeros(frogs);
+                hash ^= geometry.zobrist(cell, w >= words);
             }
         }
+        return hash;
     }
 
     /**
-     * @return list of successors, valid and not valid
+     * @return list of valid successors
      */
     public Collection<Configuration> getSuccessors(){
         Collection<Configuration> successors = new ArrayList<>();
-        for(int r = 0; r < this.row; r++){
-            for(int c = 0; c < this.col; c++){
-                //if board loc at row, col is a frog
-                if(Objects.equals(this.board[r][c], "G") || Objects.equals(this.board[r][c], "R")){
-                    //if the coordinates are even, call the even method and add results to  successors
-                    if(r % 2 == 0 && c % 2 == 0){
-                        successors.addAll(getEvenConfig(this, r, c));
-                    }else{
-                        //if coordinates are odd, call the odd method
-                        successors.addAll(getOddConfig(this, r, c));
-                    }
-                }
+        forEachNeighbor(successors::add);
+        return successors;
+    }
+
+    /**
+     * Hand every valid successor to visitor without collecting them
+     * @param visitor called once for every successor
+     */
+    @Override
+    public void forEachNeighbor(Consumer<Configuration> visitor){
+        int words = this.geometry.getWords();
+        for(int w = 0; w < words; w++){
+            //every frog, green or red, in row-major order
+            long frogs = this.bits[w] | this.bits[words + w];
+            while(frogs != 0){
+                addJumps(visitor, w * 64 + Long.numberOfTrailingZeros(frogs));
+                frogs &= frogs - 1;
             }
         }
-        return successors;
     }
 
     /**
      * Generates the successors for even coordinates on the board
-     * checks the 8 possible configurations at an even loc
+     * checks the 8 possible configurations at an even loc, or the 4 at an odd one,
+     * the jump table of config's geometry knows which
      * @param config the current config
      * @param r the row with the item that will be moved
      * @param c the col with the item that will be moved
-     * @return collection of valid configurations
+     * @return collection of valid configurations, empty if there is no frog at r, c
      */
     public Collection<Configuration> getEvenConfig(HoppersConfig config, int r, int c){
-        //hold successors generated
         Collection<Configuration> successors = new ArrayList<>();
-        //get frog value at location
-        String frog = config.board[r][c];
-        //for each possible location, check if it is valid and if there is a frog that
-        //is being passed over to get to that location
-        //lists contain all possible row/col values to check
-        List<Integer> isValidRowCheck = new ArrayList<>(Arrays.asList(4, -4, 0, 0, 2, -2, -2, 2));
-        List<Integer> isValidColCheck = new ArrayList<>(Arrays.asList(0, 0, -4, 4, 2, 2, -2, -2));
-        //lists contain all possible row/col values that will be passed over
-        List<Integer> frogRowCheck = new ArrayList<>(Arrays.asList(2,-2,0,0,1,-1,-1,1));
-        List<Integer> frogColCheck = new ArrayList<>(Arrays.asList(0,0,-2,2,1,1,-1,-1));
-        //since row/col is even, there are eight possibilities
-        for(int i = 0; i < 8; i++){
-            int rowNumFrog = isValidRowCheck.remove(0);
-            int rowNumEmpty = frogRowCheck.remove(0);
-            int colNumFrog = isValidColCheck.remove(0);
-            int colNumEmpty = frogColCheck.remove(0);
-            if(isValid(r+rowNumFrog,c+colNumFrog) && frogCheck(r+rowNumEmpty,c+colNumEmpty)) {
-                //create a new HoppersConfig
-                HoppersConfig successor= new HoppersConfig(config);
-                successor.board[r + rowNumEmpty][c+colNumEmpty] = ".";
-                successor.board[r + rowNumFrog][c + colNumFrog] = frog;
-                successor.board[r][c]=".";
-                successors.add(successor);
-            }
+        int cell = config.geometry.cell(r, c);
+        //water, off the board or an empty spot has no frog to move
+        if(cell >= 0 && !config.isValid(cell)){
+            config.addJumps(successors::add, cell);
         }
         return successors;
     }
 
     /**
-     * check if the row, col value that is being passed over is a green frog
-     * @param r the row to check
-     * @param c the value to check
-     * @return true if there is a green frog there, false otherwise
+     * Generates the successors for odd coordinates on the board
+     * checks the 4 possible configurations at an odd loc, the same as {@link #getEvenConfig}
+     * @param config the current config
+     * @param r the row with the item that will be moved
+     * @param c the col with the item that will be moved
+     * @return collection of valid configurations, empty if there is no frog at r, c
      */
-    private boolean frogCheck(int r, int c) {
-        /*
-        if row and col are greater than zero and less than their max values
-        AND the object at row,col is a green frog
-         */
-        return r >= 0 && c >= 0 && r < this.row && c < this.col && Objects.equals(this.board[r][c], "G");
+    public Collection<Configuration> getOddConfig(HoppersConfig config, int r, int c){
+        return getEvenConfig(config, r, c);
     }
 
     /**
-     * check if the spot the frog is moving to is a valid place to move, indicated by a "-"
-     * @param r the row to check
-     * @param c the col to check
-     * @return true if valid to move, false otherwise
+     * Hand every valid jump of the frog at cell to visitor, using the geometry's jump table
+     * (eight possible jumps from an even location, four from an odd one, less any off the board)
+     * a jump is valid if there is a green frog being passed over and the spot landed on is empty
+     * @param visitor called once for every successor
+     * @param cell the playable cell with the frog that will be moved
      */
-    private boolean isValid(int r, int c) {
-        /*
-        if row and col are greater than zero and less than their max values
-        AND the object at row,col is a valid moving spot aka "-"
-         */
-        return r >= 0 && c >= 0 && r < this.row && c < this.col && Objects.equals(this.board[r][c], ".");
+    private void addJumps(Consumer<Configuration> visitor, int cell){
+        int end = this.geometry.jumpEnd(cell);
+        for(int jump = this.geometry.jumpStart(cell); jump < end; jump++){
+            int over = this.geometry.jumpOver(jump);
+            int to = this.geometry.jumpTo(jump);
+            if(isValid(to) && frogCheck(over)){
+                visitor.accept(makeJump(cell, over, to, jump));
+            }
+        }
     }
 
-    public Collection<Configuration> getOddConfig(HoppersConfig config, int r, int c){
-        //hold successors generated
-        Collection<Configuration> successors = new ArrayList<>();
-        //get frog value at location
-        String frog = config.board[r][c];
-        //for each possible location, check if it is valid and if there is a frog that
-        //is being passed over to get to that location
-        //lists contain all possible row/col values to check
-        List<Integer> isValidRowCheck = new ArrayList<>(Arrays.asList(2, -2, -2, 2));
-        List<Integer> isValidColCheck = new ArrayList<>(Arrays.asList(2, 2, -2, -2));
-        //lists contain all possible row/col values that will be passed over
-        List<Integer> frogRowCheck = new ArrayList<>(Arrays.asList(1,-1,-1,1));
-        List<Integer> frogColCheck = new ArrayList<>(Arrays.asList(1,1,-1,-1));
-        //since row/col is odd, there are four possibilities
-        for(int i = 0; i < 4; i++){
-            int rowNumFrog = isValidRowCheck.remove(0);
-            int rowNumEmpty = frogRowCheck.remove(0);
-            int colNumFrog = isValidColCheck.remove(0);
-            int colNumEmpty = frogColCheck.remove(0);
-            if(isValid(r+rowNumFrog,c+ colNumFrog) && frogCheck(r+rowNumEmpty,c+colNumEmpty)) {
-                //create a new HoppersConfig
-                HoppersConfig successor= new HoppersConfig(config);
-                successor.board[r + rowNumEmpty][c + colNumEmpty] = ".";
-                successor.board[r + rowNumFrog][c + colNumFrog] = frog;
-                successor.board[r][c]=".";
-                successors.add(successor);
+    /**
+     * Create the configuration after the frog at from jumps over to land on to
+     * @param from the playable cell of the frog
+     * @param over the playable cell passed over, now empty (-1 if there is none)
+     * @param to the playable cell landed on
+     * @param move the index of the jump in the geometry's table, or -1
+     * @return the new configuration
+     */
+    private HoppersConfig makeJump(int from, int over, int to, int move){
+        long[] next = this.bits.clone();
+        //the frog keeps its color, its key moves from one cell to the other
+        boolean red = !test(this.bits, 0, from);
+        int offset = red ? this.geometry.getWords() : 0;
+        long hash = this.hash ^ this.geometry.zobrist(from, red) ^ this.geometry.zobrist(to, red);
+        int greens = this.greens;
+        clear(next, offset, from);
+        if(over >= 0){
+            //the key of whatever frog was passed over is removed
+            if(test(this.bits, 0, over)){
+                hash ^= this.geometry.zobrist(over, false);
+                greens--;
             }
+            if(test(this.bits, this.geometry.getWords(), over)){
+                hash ^= this.geometry.zobrist(over, true);
+            }
+            clear(next, 0, over);
+            clear(next, this.geometry.getWords(), over);
         }
-        return successors;
+        set(next, offset, to);
+        return new HoppersConfig(this.geometry, next, hash, greens, move);
+    }
 
+    /**
+     * Create the configuration after the frog at fromRow, fromCol moves to toRow, toCol
+     * the spot halfway between them is emptied
+     * @param fromRow the row of the frog
+     * @param fromCol the col of the frog
+     * @param toRow the row moved to
+     * @param toCol the col moved to
+     * @return the new configuration
+     */
+    public HoppersConfig jump(int fromRow, int fromCol, int toRow, int toCol){
+        int from = this.geometry.cell(fromRow, fromCol);
+        int to = this.geometry.cell(toRow, toCol);
+        return makeJump(from, this.geometry.cell((fromRow + toRow) / 2, (fromCol + toCol) / 2), to,
+                this.geometry.findJump(from, to));
+    }
+
+    /**
+     * @return the index of the jump that produced this config in the geometry's table, or -1
+     */
+    @Override
+    public int getMove(){
+        return this.move;
+    }
+
+    /**
+     * Take back a jump: the frog on the landing cell goes back to where it started
+     * and the green frog it passed over returns
+     * @param move the index of the jump that produced this config
+     * @return the config the jump was made from
+     */
+    @Override
+    public Configuration undoMove(int move){
+        int from = this.geometry.jumpFrom(move);
+        int over = this.geometry.jumpOver(move);
+        int to = this.geometry.jumpTo(move);
+        long[] previous = this.bits.clone();
+        boolean red = !test(this.bits, 0, to);
+        int offset = red ? this.geometry.getWords() : 0;
+        clear(previous, offset, to);
+        set(previous, offset, from);
+        set(previous, 0, over);
+        long hash = this.hash ^ this.geometry.zobrist(to, red) ^ this.geometry.zobrist(from, red)
+                ^ this.geometry.zobrist(over, false);
+        return new HoppersConfig(this.geometry, previous, hash, this.greens + 1, -1);
+    }
+
+    /**
+     * check if the cell that is being passed over is a green frog
+     * @param cell the playable cell to check
+     * @return true if there is a green frog there, false otherwise
+     */
+    private boolean frogCheck(int cell) {
+        return test(this.bits, 0, cell);
+    }
+
+    /**
+     * check if the cell the frog is moving to is a valid place to move, indicated by a "."
+     * @param cell the playable cell to check
+     * @return true if valid to move, false otherwise
+     */
+    private boolean isValid(int cell) {
+        return !test(this.bits, 0, cell) && !test(this.bits, this.geometry.getWords(), cell);
+    }
+
+    /**
+     * @param bits the masks
+     * @param offset the first long of the mask
+     * @param cell the playable cell
+     * @return true if the cell's bit is set in the mask
+     */
+    private static boolean test(long[] bits, int offset, int cell){
+        return (bits[offset + (cell >>> 6)] & (1L << cell)) != 0;
+    }
+
+    /**
+     * set the cell's bit in the mask
+     * @param bits the masks
+     * @param offset the first long of the mask
+     * @param cell the playable cell
+     */
+    private static void set(long[] bits, int offset, int cell){
+        bits[offset + (cell >>> 6)] |= 1L << cell;
+    }
+
+    /**
+     * clear the cell's bit in the mask
+     * @param bits the masks
+     * @param offset the first long of the mask
+     * @param cell the playable cell
+     */
+    private static void clear(long[] bits, int offset, int cell){
+        bits[offset + (cell >>> 6)] &= ~(1L << cell);
     }
 
     /**
@@ -192,34 +392,68 @@ public class HoppersConfig implements Configuration{
     /**
      * Check if this HoppersConfig is equal to object other
      * @param other object to compare
-     * @return true if other is a HopperConfig and each row/col value is the same, and they are the same size
+     * @return true if other is a HopperConfig with the same geometry and the same frogs
      */
     @Override
     public boolean equals(Object other){
         if(other instanceof HoppersConfig){
-            //if they are the same size
-            if(this.row == ((HoppersConfig) other).row && this.col == ((HoppersConfig) other).col) {
-                for (int i = 0; i < this.row; i++) {
-                    for (int j = 0; j < this.col; j++) {
-                        //if the item at row, col is not equal then they are not the same
-                        if (!Objects.equals(this.board[i][j], ((HoppersConfig) other).board[i][j])) {
-                            return false;
-                        }
-                    }
-                }
-                return true;
-            }
+            HoppersConfig config = (HoppersConfig) other;
+            //different hashes can never be equal, so most misses stop here
+            return this.hash == config.hash && Arrays.equals(this.bits, config.bits)
+                    && this.geometry.equals(config.geometry);
         }
         return false;
     }
 
     /**
      *
-     * @return hashCode of the board
+     * @return the cached Zobrist hash of the frogs
      */
     @Override
     public int hashCode(){
-        return Arrays.deepHashCode(this.board);
+        return (int) (this.hash ^ (this.hash >>> 32));
+    }
+
+    /**
+     * @return the green mask followed by the red mask, shared with this config
+     */
+    @Override
+    public long[] getKey(){
+        return this.bits;
+    }
+
+    /**
+     * @return the masks of the smallest config symmetric to this one
+     */
+    @Override
+    public long[] getCanonicalKey(){
+        return this.geometry.getSymmetry().canonical(this.bits);
+    }
+
+    /**
+     * @param key the masks of a config with the same geometry
+     * @return the config with those masks
+     */
+    @Override
+    public Configuration fromKey(long[] key){
+        return new HoppersConfig(this.geometry, key.clone(), zobrist(this.geometry, key), count(this.geometry, key), -1);
+    }
+
+    /**
+     * @param r the row
+     * @param c the col
+     * @return the symbol at r, c: "G", "R", "." or "*"
+     */
+    public String getCell(int r, int c){
+        int cell = this.geometry.cell(r, c);
+        if(cell < 0){
+            return "*";
+        }else if(test(this.bits, 0, cell)){
+            return "G";
+        }else if(test(this.bits, this.geometry.getWords(), cell)){
+            return "R";
+        }
+        return ".";
     }
 
     /**
@@ -228,20 +462,20 @@ public class HoppersConfig implements Configuration{
      */
     public String displayBoard(){
         String boardStr = "   ";
-        for(int i = 0; i < this.col; i++){
+        for(int i = 0; i < this.getCol(); i++){
            boardStr += i + " ";
         }
         boardStr += "\n   ";
-        for(int i = 0; i < this.col * 2; i++){
+        for(int i = 0; i < this.getCol() * 2; i++){
             boardStr += "-";
         }
         boardStr += "\n";
-        for(int i = 0; i < this.row; i++){
-            for(int j = 0; j < this.col; j++){
+        for(int i = 0; i < this.getRow(); i++){
+            for(int j = 0; j < this.getCol(); j++){
                 if(j == 0){
                     boardStr += i + "| ";
                 }
-                boardStr += this.board[i][j] + " ";
+                boardStr += this.getCell(i, j) + " ";
             }
             boardStr += "\n";
         }
@@ -253,9 +487,9 @@ public class HoppersConfig implements Configuration{
     @Override
     public String toString(){
         String boardStr = "";
-        for(int i = 0; i < this.row; i++){
-            for(int j = 0; j < this.col; j++){
-                boardStr += this.board[i][j] + " ";
+        for(int i = 0; i < this.getRow(); i++){
+            for(int j = 0; j < this.getCol(); j++){
+                boardStr += this.getCell(i, j) + " ";
             }
             boardStr += "\n";
         }
@@ -265,37 +499,58 @@ public class HoppersConfig implements Configuration{
     /**
      * A config is a solution when one red frog is on the board
      * and every other frog is gone
-     * @return true if there is one red frog, false otherwise
+     * @return true if there are no green frogs, false otherwise
      */
     @Override
     public boolean isSolution(){
-        for(int i = 0; i < this.row; i++){
-            for(int j = 0; j < this.col; j++){
-                //if there are any green frogs this is not a solution
-                if(Objects.equals(this.board[i][j], "G")){
-                    return false;
-                }
-            }
-        }
+        return this.greens == 0;
+    }
+
+    /**
+     * isSolution() is a single comparison, so the solver can test every new config
+     * @return true
+     */
+    @Override
+    public boolean isGoalCheckedOnGeneration(){
         return true;
     }
     /**
-        return the HoppersConfig current board
+     * Every jump removes exactly one green frog, so a solution is exactly this many moves away
+     * @return the number of green frogs
+     */
+    @Override
+    public int getMinimumMoves(){
+        return this.greens;
+    }
+    /**
+        return a copy of the HoppersConfig current board, changing it does not change the config
      */
     public String[][] getBoard(){
-        return this.board;
+        String[][] board = new String[this.getRow()][this.getCol()];
+        for(int i = 0; i < this.getRow(); i++){
+            for(int j = 0; j < this.getCol(); j++){
+                board[i][j] = this.getCell(i, j);
+            }
+        }
+        return board;
+    }
+    /**
+     return the shared board geometry
+     */
+    public HoppersGeometry getGeometry(){
+        return this.geometry;
     }
     /**
      return the HoppersConfig row dimensions
      */
     public int getRow(){
-        return this.row;
+        return this.geometry.getRow();
     }
     /**
      return the HoppersConfig col dimensions
      */
     public int getCol(){
-        return this.col;
+        return this.geometry.getCol();
     }
 
 }
@@ -0,0 +1,409 @@
+package puzzles.hoppers.model;
+
+import puzzles.common.solver.Configuration;
+import puzzles.common.solver.EndgameOracle;
+import puzzles.common.solver.StatePruner;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An endgame database for one board geometry: for every placement of the red frog and up to
+ * some number of green frogs, whether the board can be solved. Every move takes one green frog,
+ * so a board that can be solved always takes as many moves as it has green frogs, and one bit
+ * per placement is enough. The bits are worked out from no green frogs up, each board from the
+ * boards one move after it, and kept in a file that is memory-mapped when it is used,
+ * so every puzzle with the same water shares one table.
+ * A solver uses it both to drop dead boards and to stop as soon as it reaches a board that can be solved.
+ * A placement of g green frogs is numbered by the red frog's cell times the number of g-cell sets,
+ * plus the colexicographic rank of the green cells: the sum of choose(cell, i + 1) over the
+ * green cells in increasing order.
+ *
+ * @author Ryleigh Fuller
+ */
+public class HoppersEndgame implements StatePruner, EndgameOracle {
+    //the moves to a solution of a board with green frogs outside the table
+    public static final int UNKNOWN = -2;
+    //the moves to a solution of a board in the table that can not be solved
+    public static final int DEAD = -1;
+    //the first int of a table file
+    private static final int MAGIC = 0x454E4447;
+    //the bytes before the bits: magic, rows, cols, playable cells, water hash, green frogs
+    private static final int HEADER = 6 * 4;
+
+    //the geometry of the boards in the table
+    private final HoppersGeometry geometry;
+    //the most green frogs on a board in the table
+    private final int greens;
+    //choose[n][g], for n up to the number of playable cells and g up to greens
+    private final long[][] choose;
+    //the bit number of the first board with each number of green frogs
+    private final long[] sectionStart;
+    //the bits, one per placement, after the header
+    private final ByteBuffer bits;
+    //asked about boards outside the table, null to keep them
+    private StatePruner fallback;
+
+    /**
+     * @param geometry the geometry of the boards in the table
+     * @param greens the most green frogs on a board in the table
+     * @param bits the bits, starting at the header
+     */
+    private HoppersEndgame(HoppersGeometry geometry, int greens, ByteBuffer bits){
+        this.geometry = geometry;
+        this.greens = greens;
+        this.choose = choose(geometry.getSize(), greens);
+        this.sectionStart = sectionStart(geometry.getSize(), greens, this.choose);
+        this.bits = bits;
+    }
+
+    /**
+     * @param size the number of playable cells
+     * @param greens the most green frogs
+     * @return choose[n][g] for n up to size and g up to greens
+     */
+    private static long[][] choose(int size, int greens){
+        long[][] choose = new long[size + 1][greens + 1];
+        for(int n = 0; n <= size; n++){
+            choose[n][0] = 1;
+            for(int g = 1; g <= Math.min(n, greens); g++){
+                choose[n][g] = choose[n - 1][g - 1] + (g <= n - 1 ? choose[n - 1][g] : 0);
+            }
+        }
+        return choose;
+    }
+
+    /**
+     * @param size the number of playable cells
+     * @param greens the most green frogs
+     * @param choose the table from {@link #choose(int, int)}
+     * @return the bit number of the first board with each number of green frogs, then the total
+     */
+    private static long[] sectionStart(int size, int greens, long[][] choose){
+        long[] start = new long[greens + 2];
+        for(int g = 0; g <= greens; g++){
+            start[g + 1] = start[g] + size * choose[size][g];
+        }
+        return start;
+    }
+
+    /**
+     * Work out the table for a geometry and write it
+     * @param geometry the geometry of the boards
+     * @param greens the most green frogs on a board in the table
+     * @param file the file to write
+     * @throws IOException if the file cannot be written
+     * @throws IllegalArgumentException if the table would not fit in memory
+     */
+    public static void build(HoppersGeometry geometry, int greens, Path file) throws IOException {
+        int size = geometry.getSize();
+        greens = Math.max(0, Math.min(greens, size - 1));
+        long[][] choose = choose(size, greens);
+        long[] sectionStart = sectionStart(size, greens, choose);
+        long bytes = HEADER + (sectionStart[greens + 1] + 7) / 8;
+        if(bytes > Integer.MAX_VALUE - 8){
+            throw new IllegalArgumentException("an endgame table of " + greens + " green frogs on "
+                    + size + " cells is too big");
+        }
+        byte[] table = new byte[(int) bytes];
+        ByteBuffer buffer = ByteBuffer.wrap(table);
+        buffer.putInt(MAGIC).putInt(geometry.getRow()).putInt(geometry.getCol()).putInt(size)
+                .putInt(geometry.hashCode()).putInt(greens);
+        HoppersEndgame endgame = new HoppersEndgame(geometry, greens, buffer);
+
+        //with no green frogs left the board is solved, wherever the red frog is
+        for(int red = 0; red < size; red++){
+            endgame.set(0, red, 0);
+        }
+        boolean[] green = new boolean[size];
+        int[] next = new int[greens];
+        for(int g = 1; g <= greens; g++){
+            //every set of g cells in colex order, so the rank goes up by one each time
+            int[] cells = new int[g];
+            for(int i = 0; i < g; i++){
+                cells[i] = i;
+            }
+            for(long rank = 0; rank < choose[size][g]; rank++){
+                for(int cell : cells){
+                    green[cell] = true;
+                }
+                for(int red = 0; red < size; red++){
+                    if(!green[red] && endgame.anyMoveSolvable(cells, green, red, next)){
+                        endgame.set(g, red, rank);
+                    }
+                }
+                for(int cell : cells){
+                    green[cell] = false;
+                }
+                //the next set: bump the lowest cell that can go up, and pack the ones below it back down
+                int i = 0;
+                while(i < g - 1 && cells[i] + 1 == cells[i + 1]){
+                    i++;
+                }
+                cells[i]++;
+                for(int j = 0; j < i; j++){
+                    cells[j] = j;
+                }
+            }
+        }
+        Files.write(file, table);
+    }
+
+    /**
+     * @param cells the green cells in increasing order
+     * @param green true on every green cell
+     * @param red the red frog's cell
+     * @param next room for the green cells after a move
+     * @return true if some move leads to a board the table already knows can be solved
+     */
+    private boolean anyMoveSolvable(int[] cells, boolean[] green, int red, int[] next){
+        int g = cells.length;
+        //a green frog jumps over another green frog, both leave their cells
+        for(int from : cells){
+            for(int jump = this.geometry.jumpStart(from); jump < this.geometry.jumpEnd(from); jump++){
+                int over = this.geometry.jumpOver(jump);
+                int to = this.geometry.jumpTo(jump);
+                if(green[over] && !green[to] && to != red){
+                    int n = 0;
+                    for(int cell : cells){
+                        if(cell != from && cell != over){
+                            next[n++] = cell;
+                        }
+                    }
+                    next[n++] = to;
+                    if(isSet(g - 1, red, rank(next, n))){
+                        return true;
+                    }
+                }
+            }
+        }
+        //the red frog jumps over a green frog
+        for(int jump = this.geometry.jumpStart(red); jump < this.geometry.jumpEnd(red); jump++){
+            int over = this.geometry.jumpOver(jump);
+            int to = this.geometry.jumpTo(jump);
+            if(green[over] && !green[to]){
+                int n = 0;
+                for(int cell : cells){
+                    if(cell != over){
+                        next[n++] = cell;
+                    }
+                }
+                if(isSet(g - 1, to, rank(next, n))){
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param cells green cells, in any order, sorted in place
+     * @param n the number of cells
+     * @return the colex rank of the cells
+     */
+    private long rank(int[] cells, int n){
+        Arrays.sort(cells, 0, n);
+        long rank = 0;
+        for(int i = 0; i < n; i++){
+            rank += this.choose[cells[i]][i + 1];
+        }
+        return rank;
+    }
+
+    /**
+     * @param g the number of green frogs
+     * @param red the red frog's cell
+     * @param rank the colex rank of the green cells
+     * @return the bit number of the placement
+     */
+    private long bit(int g, int red, long rank){
+        return this.sectionStart[g] + red * this.choose[this.geometry.getSize()][g] + rank;
+    }
+
+    /**
+     * @param g the number of green frogs
+     * @param red the red frog's cell
+     * @param rank the colex rank of the green cells
+     * @return true if the placement can be solved
+     */
+    private boolean isSet(int g, int red, long rank){
+        long bit = bit(g, red, rank);
+        return (this.bits.get(HEADER + (int) (bit >>> 3)) & (1 << (bit & 7))) != 0;
+    }
+
+    /**
+     * Mark a placement as one that can be solved, only while building
+     * @param g the number of green frogs
+     * @param red the red frog's cell
+     * @param rank the colex rank of the green cells
+     */
+    private void set(int g, int red, long rank){
+        long bit = bit(g, red, rank);
+        int index = HEADER + (int) (bit >>> 3);
+        this.bits.put(index, (byte) (this.bits.get(index) | (1 << (bit & 7))));
+    }
+
+    /**
+     * Memory-map a table written by {@link #build(HoppersGeometry, int, Path)}
+     * @param geometry the geometry the table must be for
+     * @param file the table file
+     * @return the table
+     * @throws IOException if the file cannot be read, or is not a table for this geometry
+     */
+    public static HoppersEndgame open(HoppersGeometry geometry, Path file) throws IOException {
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)){
+            if(channel.size() < HEADER){
+                throw new IOException(file + " is not an endgame table");
+            }
+            //the mapping stays valid after the channel is closed
+            ByteBuffer bits = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if(bits.getInt(0) != MAGIC){
+                throw new IOException(file + " is not an endgame table");
+            }
+            if(bits.getInt(4) != geometry.getRow() || bits.getInt(8) != geometry.getCol()
+                    || bits.getInt(12) != geometry.getSize() || bits.getInt(16) != geometry.hashCode()){
+                throw new IOException(file + " is an endgame table for a different board");
+            }
+            int greens = bits.getInt(20);
+            if(greens < 0 || greens >= geometry.getSize()){
+                throw new IOException(file + " is not an endgame table");
+            }
+            HoppersEndgame endgame = new HoppersEndgame(geometry, greens, bits);
+            if(channel.size() < HEADER + (endgame.sectionStart[greens + 1] + 7) / 8){
+                throw new IOException(file + " is cut short");
+            }
+            return endgame;
+        }
+    }
+
+    /**
+     * @param dir the directory of endgame tables
+     * @param geometry a board geometry
+     * @param greens the most green frogs on a board in the table
+     * @return the file the table for the geometry is kept in
+     */
+    public static Path tableFile(Path dir, HoppersGeometry geometry, int greens){
+        return dir.resolve("endgame-" + geometry.getRow() + "x" + geometry.getCol() + "-"
+                + Integer.toHexString(geometry.hashCode()) + "-" + greens + ".bin");
+    }
+
+    /**
+     * Open the biggest table for a geometry in a directory
+     * @param dir the directory of endgame tables
+     * @param geometry a board geometry
+     * @return the table with the most green frogs, or null if there is none
+     * @throws IOException if a table is there but cannot be read
+     */
+    public static HoppersEndgame find(Path dir, HoppersGeometry geometry) throws IOException {
+        for(int greens = geometry.getSize() - 1; greens >= 0; greens--){
+            Path file = tableFile(dir, geometry, greens);
+            if(Files.exists(file)){
+                return open(geometry, file);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param config a board
+     * @return the moves from config to a solution, DEAD if it can not be solved,
+     * or UNKNOWN if it is not a board of this geometry with one red frog and few enough green frogs
+     */
+    public int getMoves(Configuration config){
+        if(!(config instanceof HoppersConfig)){
+            return UNKNOWN;
+        }
+        HoppersConfig board = (HoppersConfig) config;
+        int g = board.getMinimumMoves();
+        if(g > this.greens || board.getGeometry() != this.geometry && !this.geometry.equals(board.getGeometry())){
+            return UNKNOWN;
+        }
+        long[] key = board.getKey();
+        int words = this.geometry.getWords();
+        int[] cells = new int[g];
+        int n = 0;
+        int red = -1;
+        for(int w = 0; w < words; w++){
+            for(long word = key[w]; word != 0; word &= word - 1){
+                cells[n++] = w * 64 + Long.numberOfTrailingZeros(word);
+            }
+            if(key[words + w] != 0){
+                if(red >= 0 || Long.bitCount(key[words + w]) > 1){
+                    return UNKNOWN;
+                }
+                red = w * 64 + Long.numberOfTrailingZeros(key[words + w]);
+            }
+        }
+        if(red < 0){
+            return UNKNOWN;
+        }
+        return isSet(g, red, rank(cells, n)) ? g : DEAD;
+    }
+
+    /**
+     * @param config a configuration just generated
+     * @return true if the table says config can not be solved, or for boards outside the table,
+     * whatever the fallback pruner says
+     */
+    @Override
+    public boolean isDead(Configuration config){
+        int moves = getMoves(config);
+        if(moves == UNKNOWN){
+            return this.fallback != null && this.fallback.isDead(config);
+        }
+        return moves == DEAD;
+    }
+
+    /**
+     * @param config a configuration just generated
+     * @return true if config is in the table and can be solved
+     */
+    @Override
+    public boolean knowsSolution(Configuration config){
+        return getMoves(config) >= 0;
+    }
+
+    /**
+     * Follow the table down to a solution, each move to a board that can still be solved
+     * @param config a board in the table that can be solved
+     * @return the boards from config to a solution, config first
+     */
+    @Override
+    public List<Configuration> complete(Configuration config){
+        List<Configuration> path = new ArrayList<>();
+        path.add(config);
+        for(int moves = getMoves(config); moves > 0; moves--){
+            Configuration board = path.get(path.size() - 1);
+            for(Configuration next : board.getNeighbors()){
+                if(getMoves(next) == moves - 1){
+                    path.add(next);
+                    break;
+                }
+            }
+        }
+        return path;
+    }
+
+    /**
+     * @param fallback asked about boards with too many green frogs for the table, null to keep them
+     * @return this table
+     */
+    public HoppersEndgame setFallback(StatePruner fallback){
+        this.fallback = fallback;
+        return this;
+    }
+
+    /**
+     * @return the most green frogs on a board in the table
+     */
+    public int getGreens(){
+        return this.greens;
+    }
+}
@@ -0,0 +1,277 @@
+package puzzles.hoppers.model;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.SplittableRandom;
+
+/**
+ * The fixed shape of a hoppers board: its size and which spots are water.
+ * Water never changes, so every configuration of a puzzle shares one geometry
+ * and only stores the frogs on the playable cells, numbered in row-major order.
+ *
+ * @author Ryleigh Fuller
+ */
+public class HoppersGeometry {
+    //row offsets to land on from an even location
+    private static final int[] EVEN_LAND_ROW = {4, -4, 0, 0, 2, -2, -2, 2};
+    //col offsets to land on from an even location
+    private static final int[] EVEN_LAND_COL = {0, 0, -4, 4, 2, 2, -2, -2};
+    //row offsets passed over from an even location
+    private static final int[] EVEN_OVER_ROW = {2, -2, 0, 0, 1, -1, -1, 1};
+    //col offsets passed over from an even location
+    private static final int[] EVEN_OVER_COL = {0, 0, -2, 2, 1, 1, -1, -1};
+    //row offsets to land on from an odd location
+    private static final int[] ODD_LAND_ROW = {2, -2, -2, 2};
+    //col offsets to land on from an odd location
+    private static final int[] ODD_LAND_COL = {2, 2, -2, -2};
+    //row offsets passed over from an odd location
+    private static final int[] ODD_OVER_ROW = {1, -1, -1, 1};
+    //col offsets passed over from an odd location
+    private static final int[] ODD_OVER_COL = {1, 1, -1, -1};
+
+    //the row dimension
+    private final int row;
+    //the col dimension
+    private final int col;
+    //the playable cell number at each row, col, -1 for water
+    private final int[][] cells;
+    //the row of each playable cell
+    private final int[] cellRow;
+    //the col of each playable cell
+    private final int[] cellCol;
+    //the number of longs needed for one bit per playable cell
+    private final int words;
+    //the rotations and reflections that map the board onto itself
+    private final HoppersSymmetry symmetry;
+    //a random Zobrist key for a green frog on each playable cell, then for a red frog on each
+    private final long[] zobrist;
+    //the jumps from cell are jumpOver[i], jumpTo[i] for jumpStart[cell] <= i < jumpStart[cell + 1]
+    private final int[] jumpStart;
+    //the playable cell each jump starts from
+    private final int[] jumpFrom;
+    //the playable cell passed over by each jump
+    private final int[] jumpOver;
+    //the playable cell landed on by each jump
+    private final int[] jumpTo;
+
+    /**
+     * Create the geometry of a board, every spot that is not "*" is playable
+     * @param board the board read from a puzzle file
+     */
+    public HoppersGeometry(String[][] board){
+        this.row = board.length;
+        this.col = board.length == 0 ? 0 : board[0].length;
+        this.cells = new int[this.row][this.col];
+        int size = 0;
+        for(int r = 0; r < this.row; r++){
+            for(int c = 0; c < this.col; c++){
+                this.cells[r][c] = Objects.equals(board[r][c], "*") ? -1 : size++;
+            }
+        }
+        this.cellRow = new int[size];
+        this.cellCol = new int[size];
+        for(int r = 0; r < this.row; r++){
+            for(int c = 0; c < this.col; c++){
+                if(this.cells[r][c] >= 0){
+                    this.cellRow[this.cells[r][c]] = r;
+                    this.cellCol[this.cells[r][c]] = c;
+                }
+            }
+        }
+        this.words = Math.max(1, (size + 63) / 64);
+        this.symmetry = new HoppersSymmetry(this);
+        //a fixed seed keeps hash codes the same from run to run
+        this.zobrist = new SplittableRandom(size).longs(2L * size).toArray();
+        //every jump whose spots are all on the board and not water, in the order they are checked
+        this.jumpStart = new int[size + 1];
+        int[] from = new int[8 * size];
+        int[] over = new int[8 * size];
+        int[] to = new int[8 * size];
+        int jumps = 0;
+        for(int cell = 0; cell < size; cell++){
+            this.jumpStart[cell] = jumps;
+            int r = this.cellRow[cell];
+            int c = this.cellCol[cell];
+            //even coordinates have eight possible jumps, odd coordinates have four
+            boolean even = r % 2 == 0 && c % 2 == 0;
+            int[] landRow = even ? EVEN_LAND_ROW : ODD_LAND_ROW;
+            int[] landCol = even ? EVEN_LAND_COL : ODD_LAND_COL;
+            int[] overRow = even ? EVEN_OVER_ROW : ODD_OVER_ROW;
+            int[] overCol = even ? EVEN_OVER_COL : ODD_OVER_COL;
+            for(int i = 0; i < landRow.length; i++){
+                int land = cell(r + landRow[i], c + landCol[i]);
+                int passed = cell(r + overRow[i], c + overCol[i]);
+                if(land >= 0 && passed >= 0){
+                    from[jumps] = cell;
+                    over[jumps] = passed;
+                    to[jumps] = land;
+                    jumps++;
+                }
+            }
+        }
+        this.jumpStart[size] = jumps;
+        this.jumpFrom = Arrays.copyOf(from, jumps);
+        this.jumpOver = Arrays.copyOf(over, jumps);
+        this.jumpTo = Arrays.copyOf(to, jumps);
+    }
+
+    /**
+     * @param r the row
+     * @param c the col
+     * @return the playable cell number at r, c or -1 if it is water or off the board
+     */
+    public int cell(int r, int c){
+        if(r < 0 || c < 0 || r >= this.row || c >= this.col){
+            return -1;
+        }
+        return this.cells[r][c];
+    }
+
+    /**
+     * @param cell a playable cell number
+     * @return the row of the cell
+     */
+    public int cellRow(int cell){
+        return this.cellRow[cell];
+    }
+
+    /**
+     * @param cell a playable cell number
+     * @return the col of the cell
+     */
+    public int cellCol(int cell){
+        return this.cellCol[cell];
+    }
+
+    /**
+     * @return the number of playable cells
+     */
+    public int getSize(){
+        return this.cellRow.length;
+    }
+
+    /**
+     * @return the number of longs in one cell mask
+     */
+    public int getWords(){
+        return this.words;
+    }
+
+    /**
+     * @param cell a playable cell number
+     * @param red true for the red frog, false for a green frog
+     * @return the Zobrist key of that frog on that cell
+     */
+    public long zobrist(int cell, boolean red){
+        return this.zobrist[red ? this.cellRow.length + cell : cell];
+    }
+
+    /**
+     * @param cell a playable cell number
+     * @return the index of the first jump from cell
+     */
+    public int jumpStart(int cell){
+        return this.jumpStart[cell];
+    }
+
+    /**
+     * @param cell a playable cell number
+     * @return one past the index of the last jump from cell
+     */
+    public int jumpEnd(int cell){
+        return this.jumpStart[cell + 1];
+    }
+
+    /**
+     * @param jump a jump index
+     * @return the playable cell the jump starts from
+     */
+    public int jumpFrom(int jump){
+        return this.jumpFrom[jump];
+    }
+
+    /**
+     * @param jump a jump index
+     * @return the playable cell the jump passes over
+     */
+    public int jumpOver(int jump){
+        return this.jumpOver[jump];
+    }
+
+    /**
+     * @param jump a jump index
+     * @return the playable cell the jump lands on
+     */
+    public int jumpTo(int jump){
+        return this.jumpTo[jump];
+    }
+
+    /**
+     * @param from the playable cell jumped from
+     * @param to the playable cell landed on
+     * @return the index of the jump from one to the other, or -1 if there is none
+     */
+    public int findJump(int from, int to){
+        if(from < 0 || to < 0){
+            return -1;
+        }
+        for(int jump = this.jumpStart[from]; jump < this.jumpStart[from + 1]; jump++){
+            if(this.jumpTo[jump] == to){
+                return jump;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the number of jumps on the board
+     */
+    public int getJumps(){
+        return this.jumpTo.length;
+    }
+
+    /**
+     * @return the rotations and reflections that map the board onto itself
+     */
+    public HoppersSymmetry getSymmetry(){
+        return this.symmetry;
+    }
+
+    /**
+     * @return the row dimension
+     */
+    public int getRow(){
+        return this.row;
+    }
+
+    /**
+     * @return the col dimension
+     */
+    public int getCol(){
+        return this.col;
+    }
+
+    /**
+     * Two geometries are equal when they have the same size and water in the same spots
+     * @param other object to compare
+     * @return true if other is an equal HoppersGeometry
+     */
+    @Override
+    public boolean equals(Object other){
+        if(this == other){
+            return true;
+        }
+        if(other instanceof HoppersGeometry){
+            return Arrays.deepEquals(this.cells, ((HoppersGeometry) other).cells);
+        }
+        return false;
+    }
+
+    /**
+     * @return hashCode of the water layout
+     */
+    @Override
+    public int hashCode(){
+        return Arrays.deepHashCode(this.cells);
+    }
+}
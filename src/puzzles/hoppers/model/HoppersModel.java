@@ -1,12 +1,24 @@
 package puzzles.hoppers.model;
 
 import puzzles.common.Observer;
+import puzzles.common.solver.BoundedDeadStateTable;
 import puzzles.common.solver.Configuration;
-import puzzles.common.solver.Solver;
+import puzzles.common.solver.DeadStateTable;
+import puzzles.common.solver.DepthFirstSolver;
+import puzzles.common.solver.ProgressListener;
+import puzzles.common.solver.RetrogradeTable;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 /**
  * The representation of a hopper model
  *
@@ -16,13 +28,38 @@ public class HoppersModel {
     /** the collection of observers of this model */
     private final List<Observer<HoppersModel, String>> observers = new LinkedList<>();
 
-    /** the current configuration */
-    private HoppersConfig currentConfig;
+    /** the current configuration, a background hint may change it */
+    private volatile HoppersConfig currentConfig;
     /** row, col to move from*/
     private int[] selectFrom;
     /** row, col to move to*/
     private int[] selectTo;
     private final String filename;
+    /** the next step toward a solution for every board on a solution found so far */
+    private final Map<HoppersConfig, HoppersConfig> nextSteps = new HashMap<>();
+    /** boards of this puzzle already proven dead, shared by the solver of every hint */
+    private DeadStateTable deadStates = new BoundedDeadStateTable(1 << 16);
+    /** guards the session and the hint generation between the player and a background hint */
+    private final Object sessionLock = new Object();
+    /** runs hint searches off the thread that asked for them, one at a time */
+    private final ExecutorService hintExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "hoppers-hint");
+        //a search still running must not keep the program open
+        thread.setDaemon(true);
+        return thread;
+    });
+    /** the background search running now, null if there is none */
+    private Future<?> searchTask;
+    /** the board the background search started from */
+    private HoppersConfig searchBoard;
+    /** true if the player is waiting on the background search for a hint, false if it only speculates */
+    private boolean hintRequested;
+    /** bumped on every cancel, a background search only lands if it is unchanged */
+    private int searchGeneration;
+    /** true to check in the background whether the board is still solvable after every move */
+    private volatile boolean speculative = true;
+    /** the distance to a solution of every board of the puzzle, null if no table was built for it */
+    private volatile RetrogradeTable table;
 
 
     /**
@@ -57,39 +94,349 @@ public class HoppersModel {
      * If a solution at the current configuration is possible,
      * advance to the next step as indicated from solver.
      * If not, let the player know there is no solution possible.
+     * Boards on a solution already found, or already proven dead, are answered
+     * straight from the session without searching again, and every board is answered
+     * straight from the puzzle's table if HoppersAnalyzer has built one.
      */
     public void hint()
     {
+        //a speculative search of this board is already under way, so wait for it instead of starting over
+        awaitSpeculation();
+        cancelHint();
         //check if this current configuration is a solution
         if(this.currentConfig.isSolution()){
             System.out.println("\n");
             this.alertObservers("Puzzle already solved!");
         }else{
-            //create a solver object
-            Solver solver = new Solver();
-            //get path from solver from current config, this will find a path or tell us it is not solvable
-            Collection<Configuration> path = solver.solve(this.currentConfig);
-            //if there is a path, advance to the next step after current
-            if(path != null){
-                Object[] arrPath = path.toArray();
-                this.currentConfig = (HoppersConfig)arrPath[arrPath.length - 2];
-                this.alertObservers( "Next step!");
+            HoppersConfig next = knownNextStep(this.currentConfig);
+            if(next == null && !isKnownDead(this.currentConfig)){
+                next = solveNextStep(this.currentConfig, null);
+            }
+            showHint(next);
+        }
 
-            }else{
-                //no path, indicate there is no solution
-                System.out.println("\n");
-                this.alertObservers("No solution");
+    }
+
+    /**
+     * Give a hint like {@link #hint()}, but search on a background thread so the caller
+     * is never blocked. While searching, observers are sent "Solving..." messages with how
+     * many states have been explored, from the background thread.
+     * The hint is thrown away if the player moves, resets or loads before it is found.
+     */
+    public void hintAsync(){
+        HoppersConfig start = this.currentConfig;
+        synchronized(this.sessionLock){
+            //a speculative search of this board is already under way, take its answer when it lands
+            if(this.searchTask != null && start.equals(this.searchBoard)){
+                this.hintRequested = true;
+                this.alertObservers("Solving...");
+                return;
+            }
+        }
+        cancelHint();
+        if(start.isSolution()){
+            this.alertObservers("Puzzle already solved!");
+            return;
+        }
+        //answers the session already knows are given straight away
+        HoppersConfig next = knownNextStep(start);
+        if(next != null || isKnownDead(start)){
+            showHint(next);
+            return;
+        }
+        this.alertObservers("Solving...");
+        startSearch(start, true);
+    }
+
+    /**
+     * Stop the background search, if there is one. Its answer will not be used.
+     */
+    public void cancelHint(){
+        synchronized(this.sessionLock){
+            this.searchGeneration++;
+            if(this.searchTask != null){
+                this.searchTask.cancel(true);
+                this.searchTask = null;
+            }
+        }
+    }
+
+    /**
+     * Stop the background search if the player is waiting on it for a hint,
+     * a speculative search of the board keeps going
+     */
+    private void cancelRequestedHint(){
+        synchronized(this.sessionLock){
+            if(this.hintRequested){
+                cancelHint();
+            }
+        }
+    }
+
+    /**
+     * @param speculative true to check in the background whether the board is still
+     *                    solvable after every move, and tell the observers
+     */
+    public void setSpeculative(boolean speculative){
+        this.speculative = speculative;
+    }
+
+    /**
+     * Start checking in the background whether the board is still solvable after a move.
+     * Observers are told "Still solvable." or "Dead end, no solution from here.", and the
+     * path found is kept in the session so the next hint is instant.
+     * @param previous the board before the move
+     */
+    private void speculate(HoppersConfig previous){
+        HoppersConfig board = this.currentConfig;
+        if(!this.speculative || board.isSolution()){
+            return;
+        }
+        //a board after a dead one is dead too, otherwise the dead one could reach a solution through it
+        if(isKnownDead(previous)){
+            DeadStateTable dead = currentDeadStates();
+            synchronized(dead){
+                dead.putDead(board, DeadStateTable.NEVER);
             }
         }
+        //the move stayed on a known path or ran into a known dead board
+        if(knownNextStep(board) != null || isKnownDead(board)){
+            showStatus(knownNextStep(board) != null);
+            return;
+        }
+        startSearch(board, false);
+    }
 
+    /**
+     * Search from a board on the hint thread
+     * @param start the board to search from
+     * @param hint true if the player is waiting for a hint, false to only report solvability
+     */
+    private void startSearch(HoppersConfig start, boolean hint){
+        synchronized(this.sessionLock){
+            this.searchGeneration++;
+            int generation = this.searchGeneration;
+            this.searchBoard = start;
+            this.hintRequested = hint;
+            this.searchTask = this.hintExecutor.submit(() -> {
+                HoppersConfig found;
+                try{
+                    found = solveNextStep(start, (explored, frontier) -> {
+                        if(isWaitedOn(generation)){
+                            this.alertObservers("Solving... " + explored + " states explored, frontier " + frontier);
+                        }
+                    });
+                }catch(CancellationException e){
+                    return;
+                }
+                boolean applied;
+                synchronized(this.sessionLock){
+                    if(generation != this.searchGeneration){
+                        return;
+                    }
+                    applied = this.hintRequested;
+                    if(applied && found != null){
+                        this.currentConfig = found;
+                    }
+                    this.searchTask = null;
+                }
+                if(applied){
+                    showHint(found);
+                }else{
+                    showStatus(found != null);
+                }
+            });
+        }
     }
+
+    /**
+     * Wait for a speculative search of the current board to finish, if one is running,
+     * so its answer is in the session
+     */
+    private void awaitSpeculation(){
+        Future<?> task;
+        synchronized(this.sessionLock){
+            task = this.currentConfig.equals(this.searchBoard) ? this.searchTask : null;
+        }
+        if(task == null){
+            return;
+        }
+        try{
+            task.get();
+        }catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+        }catch(CancellationException | ExecutionException e){
+            //the board is searched again by the caller
+        }
+    }
+
+    /**
+     * @param generation the search generation when a background search started
+     * @return true if that search has not been cancelled and the player is waiting on it
+     */
+    private boolean isWaitedOn(int generation){
+        synchronized(this.sessionLock){
+            return generation == this.searchGeneration && this.hintRequested;
+        }
+    }
+
+    /**
+     * Tell the player whether the board can still be solved
+     * @param solvable true if there is a solution from the current board
+     */
+    private void showStatus(boolean solvable){
+        this.alertObservers(solvable ? "Still solvable." : "Dead end, no solution from here.");
+    }
+
+    /**
+     * Move to the step given by a hint, or tell the player there is none
+     * @param next the next step, null if there is no solution
+     */
+    private void showHint(HoppersConfig next){
+        //if there is a path, advance to the next step after current
+        if(next != null){
+            this.currentConfig = next;
+            this.alertObservers( "Next step!");
+
+        }else{
+            //no path, indicate there is no solution
+            System.out.println("\n");
+            this.alertObservers("No solution");
+        }
+    }
+
+    /**
+     * @param config a board of this puzzle
+     * @return the next step from config on a solution already found, or null
+     */
+    private HoppersConfig knownNextStep(HoppersConfig config){
+        RetrogradeTable table = this.table;
+        if(table != null && table.getDepth(config) != RetrogradeTable.UNKNOWN){
+            return (HoppersConfig) table.nextStep(config);
+        }
+        synchronized(this.sessionLock){
+            return this.nextSteps.get(config);
+        }
+    }
+
+    /**
+     * @param config a board of this puzzle
+     * @return true if config is already proven to have no solution
+     */
+    private boolean isKnownDead(HoppersConfig config){
+        RetrogradeTable table = this.table;
+        if(table != null && table.getDepth(config) != RetrogradeTable.UNKNOWN){
+            return table.getDepth(config) == RetrogradeTable.DEAD;
+        }
+        DeadStateTable dead = currentDeadStates();
+        synchronized(dead){
+            return dead.getDeadMoves(config) == DeadStateTable.NEVER;
+        }
+    }
+
+    /**
+     * Search from a configuration and remember every step of the path found.
+     * The steps are keyed by the whole board, so they stay right until the puzzle is loaded or reset:
+     * a manual move off the path just misses them.
+     * @param start the configuration to search from
+     * @param listener told how the search is going, null for nobody
+     * @return the next step from start, or null if there is no solution
+     * @throws CancellationException if the searching thread is interrupted
+     */
+    private HoppersConfig solveNextStep(HoppersConfig start, ProgressListener listener){
+        DeadStateTable dead = currentDeadStates();
+        //create a solver object, every hoppers solution is as long as there are green frogs
+        //so searching depth first finds a shortest one without keeping every config in memory
+        DepthFirstSolver solver = new DepthFirstSolver(dead);
+        solver.setProgressListener(listener);
+        //skip boards whose frogs can never clear every green frog
+        solver.setPruner(new HoppersPruner(start.getGeometry()));
+        //get path from solver from start, this will find a path or tell us it is not solvable
+        //the dead table is not thread safe, so only one search may use it at a time
+        Collection<Configuration> path;
+        synchronized(dead){
+            path = solver.solve(start);
+        }
+        if(path == null){
+            return null;
+        }
+        //the path runs from the finish back to start
+        Object[] arrPath = path.toArray();
+        synchronized(this.sessionLock){
+            for(int i = arrPath.length - 1; i > 0; i--){
+                this.nextSteps.put((HoppersConfig) arrPath[i], (HoppersConfig) arrPath[i - 1]);
+            }
+            return this.nextSteps.get(start);
+        }
+    }
+
+    /**
+     * @return the dead table of the puzzle loaded now, lock it while using it
+     */
+    private DeadStateTable currentDeadStates(){
+        synchronized(this.sessionLock){
+            return this.deadStates;
+        }
+    }
+
+    /**
+     * forget everything the hint session knows, for when a different puzzle is loaded
+     */
+    private void clearSession(){
+        synchronized(this.sessionLock){
+            this.nextSteps.clear();
+            this.deadStates = new BoundedDeadStateTable(1 << 16);
+        }
+    }
+
+    /**
+     * @param filename a puzzle file
+     * @return the file HoppersAnalyzer writes the puzzle's table to: the puzzle file with .table for .txt
+     */
+    public static String tableFile(String filename){
+        return (filename.endsWith(".txt") ? filename.substring(0, filename.length() - 4) : filename) + ".table";
+    }
+
+    /**
+     * @param geometry the board's shape and water
+     * @return the header a table of a board with that geometry is saved with: rows, columns,
+     * cell count and water hash, the same fields HoppersEndgame checks its tables by
+     */
+    public static int[] tableHeader(HoppersGeometry geometry){
+        return new int[]{geometry.getRow(), geometry.getCol(), geometry.getSize(), geometry.hashCode()};
+    }
+
+    /**
+     * Answer hints and solvability from the puzzle's table, if it has been built for the board's
+     * geometry and has the starting board in it
+     * @param filename the puzzle file
+     */
+    private void loadTable(String filename){
+        this.table = null;
+        Path file = Paths.get(tableFile(filename));
+        if(!Files.exists(file)){
+            return;
+        }
+        try{
+            RetrogradeTable loaded = RetrogradeTable.load(file, tableHeader(this.currentConfig.getGeometry()));
+            if(loaded.getDepth(this.currentConfig) != RetrogradeTable.UNKNOWN){
+                this.table = loaded;
+            }
+        }catch(IOException ioe){
+            System.out.println(ioe.getMessage());
+        }
+    }
+
     /**
      * Load a new HoppersModel
      * @param filename the model to load
      */
     public void load(String filename){
+        cancelHint();
         try {
             this.currentConfig = new HoppersConfig(filename);
+            clearSession();
+            loadTable(filename);
             File f = new File(filename);
             this.alertObservers("Loaded: " + f.getName());
         } catch (IOException ioe) {
@@ -104,11 +451,12 @@ public class HoppersModel {
      * @param c the col selected
      */
     public void select(int r, int c){
+        cancelRequestedHint();
         boolean valid = true;
         if(!this.currentConfig.isSolution()){
             //if r and c are on the board
             if(r >= 0 && c >= 0 && r < this.currentConfig.getRow() && c < this.currentConfig.getCol()){
-                String value = this.currentConfig.getBoard()[r][c];
+                String value = this.currentConfig.getCell(r, c);
                 //if there is a frog at boards row, col and select from is not set
                 if(!Objects.equals(value, ".") && !Objects.equals(value, "*") && selectFrom == null){
                     selectFrom = new int[2];
@@ -129,8 +477,12 @@ public class HoppersModel {
                     if(Math.abs(selectTo[0]-selectFrom[0]) == 2){
                         if(Math.abs(selectTo[1]-selectFrom[1]) == 2){
                             //make the move and update the board
+                            HoppersConfig previous = this.currentConfig;
+                            cancelHint();
                             makeMove();
                             this.alertObservers("Jumped from (" + selectFrom[0] + ", " + selectFrom[1] + ") to (" + r + ", " + c + ").");
+                            //find out in the background whether the board can still be solved
+                            speculate(previous);
 
                             selectFrom = null;
                             selectTo = null;
@@ -164,21 +516,20 @@ public class HoppersModel {
      * Adjust the board for the move being make in select()
      */
     public void makeMove(){
-        //get the frog (r or g) at the original selected spot
-        String frog = this.currentConfig.getBoard()[selectFrom[0]][selectFrom[1]];
-        //the starting selection is now empty
-        this.currentConfig.getBoard()[selectFrom[0]][selectFrom[1]] = ".";
-        //the spot the frog is moved to is now set to frog
-        this.currentConfig.getBoard()[selectTo[0]][selectTo[1]] = frog;
-        //the spot skipped over is now empty
-        this.currentConfig.getBoard()[((selectTo[0] + selectFrom[0])/2)][(selectTo[1] + selectFrom[1]) / 2] = ".";
+        //the frog (r or g) moves from the original selected spot to the new spot
+        //and the spot skipped over is now empty
+        this.currentConfig = this.currentConfig.jump(selectFrom[0], selectFrom[1], selectTo[0], selectTo[1]);
     }
 
     /**
      * reset the current game
      */
     public void reset() throws IOException {
+        cancelHint();
         this.currentConfig = new HoppersConfig(this.filename);
+        //a puzzle loaded since may have left its own session and table behind
+        clearSession();
+        loadTable(this.filename);
         File f = new File(filename);
         this.alertObservers("Loaded: " + f.getName());
         this.alertObservers( "Puzzle reset!");
@@ -192,5 +543,6 @@ public class HoppersModel {
     public HoppersModel(String filename) throws IOException {
         this.currentConfig = new HoppersConfig(filename);
         this.filename = filename;
+        loadTable(filename);
     }
 }
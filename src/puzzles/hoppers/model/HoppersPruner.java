@@ -0,0 +1,312 @@
+package puzzles.hoppers.model;
+
+import puzzles.common.solver.Configuration;
+import puzzles.common.solver.StatePruner;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Proves hoppers boards dead from where their frogs can ever move.
+ * A frog only ever lands on cells it can reach by jumping, so the playable cells split
+ * into classes (on the even and odd lattices of getEvenConfig/getOddConfig) that no frog leaves.
+ * Frogs are never added, so a board is dead when:
+ * <ul>
+ *     <li>a green frog is in a class that no other frog left on the board could ever jump over, or</li>
+ *     <li>the red frog can not jump over any cell a green frog could ever be on,
+ *     since the last green frog must be jumped by the red frog, or</li>
+ *     <li>a green frog is in a class that only green frogs can clear, even through other classes:
+ *     the last green frog cleared from those classes would need a green frog of them left to jump it.</li>
+ * </ul>
+ *
+ * @author Ryleigh Fuller
+ */
+public class HoppersPruner implements StatePruner {
+    //the geometry of the boards this pruner checks
+    private final HoppersGeometry geometry;
+    //the class of each playable cell
+    private final int[] classOf;
+    //the cells of each class, one cell mask per class
+    private final long[][] classMasks;
+    //clears[a][b] is true if a frog of class a can jump over some cell of class b
+    private final boolean[][] clears;
+    //the classes of the frogs that can jump over some cell of each class
+    private final int[][] clearedBy;
+    //the jumps that pass over each playable cell
+    private final int[][] jumpsOver;
+    //helps[c][k] is true if frogs of class k can clear class c, directly or by clearing classes that can
+    private final boolean[][] helps;
+
+    /**
+     * Work out the classes of a board
+     * @param geometry the geometry of the boards to check
+     */
+    public HoppersPruner(HoppersGeometry geometry){
+        this.geometry = geometry;
+        int size = geometry.getSize();
+        //join the two ends of every jump
+        int[] parent = new int[size];
+        for(int cell = 0; cell < size; cell++){
+            parent[cell] = cell;
+        }
+        for(int jump = 0; jump < geometry.getJumps(); jump++){
+            parent[root(parent, geometry.jumpFrom(jump))] = root(parent, geometry.jumpTo(jump));
+        }
+        //number the classes
+        this.classOf = new int[size];
+        int[] number = new int[size];
+        Arrays.fill(number, -1);
+        int classes = 0;
+        for(int cell = 0; cell < size; cell++){
+            int root = root(parent, cell);
+            if(number[root] < 0){
+                number[root] = classes++;
+            }
+            this.classOf[cell] = number[root];
+        }
+        this.classMasks = new long[classes][geometry.getWords()];
+        for(int cell = 0; cell < size; cell++){
+            this.classMasks[this.classOf[cell]][cell / 64] |= 1L << cell;
+        }
+        //the jumps over each cell
+        int[] overCount = new int[size];
+        for(int jump = 0; jump < geometry.getJumps(); jump++){
+            overCount[geometry.jumpOver(jump)]++;
+        }
+        this.jumpsOver = new int[size][];
+        for(int cell = 0; cell < size; cell++){
+            this.jumpsOver[cell] = new int[overCount[cell]];
+            overCount[cell] = 0;
+        }
+        for(int jump = 0; jump < geometry.getJumps(); jump++){
+            int over = geometry.jumpOver(jump);
+            this.jumpsOver[over][overCount[over]++] = jump;
+        }
+        //which classes can pass over which
+        this.clears = new boolean[classes][classes];
+        for(int jump = 0; jump < geometry.getJumps(); jump++){
+            this.clears[this.classOf[geometry.jumpFrom(jump)]][this.classOf[geometry.jumpOver(jump)]] = true;
+        }
+        this.clearedBy = new int[classes][];
+        for(int c = 0; c < classes; c++){
+            int[] list = new int[classes];
+            int count = 0;
+            for(int k = 0; k < classes; k++){
+                if(this.clears[k][c]){
+                    list[count++] = k;
+                }
+            }
+            this.clearedBy[c] = Arrays.copyOf(list, count);
+        }
+        //follow clearedBy back from each class
+        this.helps = new boolean[classes][classes];
+        for(int c = 0; c < classes; c++){
+            Deque<Integer> stack = new ArrayDeque<>(List.of(c));
+            while(!stack.isEmpty()){
+                for(int k: this.clearedBy[stack.pop()]){
+                    if(!this.helps[c][k]){
+                        this.helps[c][k] = true;
+                        stack.push(k);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @param parent the union-find parents
+     * @param cell a playable cell
+     * @return the root of cell's set
+     */
+    private static int root(int[] parent, int cell){
+        while(parent[cell] != cell){
+            parent[cell] = parent[parent[cell]];
+            cell = parent[cell];
+        }
+        return cell;
+    }
+
+    /**
+     * @param config a configuration just generated
+     * @return true if config is a board of this geometry that is proven dead
+     */
+    @Override
+    public boolean isDead(Configuration config){
+        //only boards sharing this geometry can be judged, anything else is kept
+        if(!(config instanceof HoppersConfig) || ((HoppersConfig) config).getGeometry() != this.geometry){
+            return false;
+        }
+        long[] bits = ((HoppersConfig) config).getKey();
+        int words = this.geometry.getWords();
+        //the frogs in each class, and the class of the red frog
+        int[] frogs = new int[this.classMasks.length];
+        int red = -1;
+        for(int k = 0; k < this.classMasks.length; k++){
+            for(int w = 0; w < words; w++){
+                frogs[k] += Long.bitCount((bits[w] | bits[words + w]) & this.classMasks[k][w]);
+            }
+        }
+        for(int w = 0; w < words && red < 0; w++){
+            if(bits[words + w] != 0){
+                red = this.classOf[w * 64 + Long.numberOfTrailingZeros(bits[words + w])];
+            }
+        }
+        boolean anyGreen = false;
+        boolean redClears = false;
+        for(int c = 0; c < this.classMasks.length; c++){
+            if(!hasGreen(bits, c)){
+                continue;
+            }
+            anyGreen = true;
+            //a green frog can not jump over itself, the others left must do it
+            int jumpers = this.clears[c][c] ? -1 : 0;
+            for(int k: this.clearedBy[c]){
+                jumpers += frogs[k];
+            }
+            if(jumpers <= 0 || red >= 0 && !this.helps[c][red]){
+                return true;
+            }
+            redClears |= red >= 0 && this.clears[red][c];
+        }
+        if(anyGreen && red >= 0 && !redClears){
+            return true;
+        }
+        return anyGreen && isStuck(bits);
+    }
+
+    /**
+     * Work out every cell a green frog or the red frog could ever land on, if every jump over a cell
+     * a green frog could ever be on were allowed, ignoring whether the spot landed on is empty.
+     * This over-counts what is really reachable, so anything still impossible is impossible on the board.
+     * @param bits the masks of a board with green frogs left
+     * @return true if some green frog can never be jumped or moved, or the red frog can never jump
+     */
+    private boolean isStuck(long[] bits){
+        int words = this.geometry.getWords();
+        long[] greens = Arrays.copyOf(bits, words);
+        long[] reds = Arrays.copyOfRange(bits, words, 2 * words);
+        //every cell added is looked at once: green cells first, then red cells
+        int size = this.geometry.getSize();
+        int[] work = new int[2 * size];
+        int head = 0;
+        int tail = 0;
+        for(int cell = 0; cell < size; cell++){
+            if(test(greens, cell)){
+                work[tail++] = cell;
+            }else if(test(reds, cell)){
+                work[tail++] = size + cell;
+            }
+        }
+        while(head < tail){
+            int item = work[head++];
+            int cell = item % size;
+            if(item < size){
+                //a green frog on cell can jump over any green cell
+                for(int jump = this.geometry.jumpStart(cell); jump < this.geometry.jumpEnd(cell); jump++){
+                    if(test(greens, this.geometry.jumpOver(jump))){
+                        tail = reach(greens, this.geometry.jumpTo(jump), work, tail, 0);
+                    }
+                }
+                //and any frog can jump over cell
+                for(int jump: this.jumpsOver[cell]){
+                    int from = this.geometry.jumpFrom(jump);
+                    if(test(greens, from)){
+                        tail = reach(greens, this.geometry.jumpTo(jump), work, tail, 0);
+                    }
+                    if(test(reds, from)){
+                        tail = reach(reds, this.geometry.jumpTo(jump), work, tail, size);
+                    }
+                }
+            }else{
+                //the red frog on cell can jump over any green cell
+                for(int jump = this.geometry.jumpStart(cell); jump < this.geometry.jumpEnd(cell); jump++){
+                    if(test(greens, this.geometry.jumpOver(jump))){
+                        tail = reach(reds, this.geometry.jumpTo(jump), work, tail, size);
+                    }
+                }
+            }
+        }
+        //the last green frog is jumped by the red frog
+        boolean redJumps = false;
+        for(int jump = 0; jump < this.geometry.getJumps() && !redJumps; jump++){
+            redJumps = test(reds, this.geometry.jumpFrom(jump)) && test(greens, this.geometry.jumpOver(jump));
+        }
+        if(!redJumps){
+            return true;
+        }
+        //every green frog must be jumped where it is, or jump somewhere else first
+        for(int w = 0; w < words; w++){
+            for(long mask = bits[w]; mask != 0; mask &= mask - 1){
+                int cell = w * 64 + Long.numberOfTrailingZeros(mask);
+                if(!isClearable(cell, greens, reds)){
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Add a cell to a mask, and to the work list if it is new
+     * @param mask the cells reached
+     * @param cell the cell landed on
+     * @param work the work list
+     * @param tail the end of the work list
+     * @param offset 0 for a green cell, the board size for a red cell
+     * @return the new end of the work list
+     */
+    private static int reach(long[] mask, int cell, int[] work, int tail, int offset){
+        if(test(mask, cell)){
+            return tail;
+        }
+        mask[cell / 64] |= 1L << cell;
+        work[tail] = offset + cell;
+        return tail + 1;
+    }
+
+    /**
+     * @param cell the cell of a green frog
+     * @param greens every cell a green frog could ever be on
+     * @param reds every cell the red frog could ever be on
+     * @return true if some frog could jump over cell, or the green frog could jump away from it
+     */
+    private boolean isClearable(int cell, long[] greens, long[] reds){
+        for(int jump = this.geometry.jumpStart(cell); jump < this.geometry.jumpEnd(cell); jump++){
+            if(test(greens, this.geometry.jumpOver(jump))){
+                return true;
+            }
+        }
+        for(int jump: this.jumpsOver[cell]){
+            int from = this.geometry.jumpFrom(jump);
+            if(test(greens, from) || test(reds, from)){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param mask a cell mask
+     * @param cell a playable cell
+     * @return true if the cell's bit is set
+     */
+    private static boolean test(long[] mask, int cell){
+        return (mask[cell / 64] & 1L << cell) != 0;
+    }
+
+    /**
+     * @param bits the masks of a board
+     * @param c a class
+     * @return true if there is a green frog in class c
+     */
+    private boolean hasGreen(long[] bits, int c){
+        for(int w = 0; w < this.geometry.getWords(); w++){
+            if((bits[w] & this.classMasks[c][w]) != 0){
+                return true;
+            }
+        }
+        return false;
+    }
+}
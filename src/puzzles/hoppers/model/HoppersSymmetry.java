@@ -0,0 +1,116 @@
+package puzzles.hoppers.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The rotations and reflections that map a hoppers board onto itself.
+ * A transform only counts when it maps water to water and keeps the even
+ * locations (8 jumps) on even locations, so every jump maps to a jump and
+ * symmetric configurations are exactly as far from a solution.
+ *
+ * @author Ryleigh Fuller
+ */
+public class HoppersSymmetry {
+    //the geometry the transforms belong to
+    private final HoppersGeometry geometry;
+    //each transform other than the identity, as the cell each playable cell maps to
+    private final int[][] transforms;
+
+    /**
+     * Find every rotation and reflection of the geometry that maps it onto itself
+     * a square board has up to eight, any other board up to four
+     * @param geometry the board shape
+     */
+    public HoppersSymmetry(HoppersGeometry geometry){
+        this.geometry = geometry;
+        List<int[]> found = new ArrayList<>();
+        boolean square = geometry.getRow() == geometry.getCol();
+        for(int transpose = 0; transpose < (square ? 2 : 1); transpose++){
+            for(int flipRow = 0; flipRow < 2; flipRow++){
+                for(int flipCol = 0; flipCol < 2; flipCol++){
+                    //the identity is not stored
+                    if(transpose + flipRow + flipCol > 0){
+                        int[] transform = transform(transpose == 1, flipRow == 1, flipCol == 1);
+                        if(transform != null){
+                            found.add(transform);
+                        }
+                    }
+                }
+            }
+        }
+        this.transforms = found.toArray(new int[0][]);
+    }
+
+    /**
+     * @param transpose swap rows and cols first
+     * @param flipRow mirror top to bottom
+     * @param flipCol mirror left to right
+     * @return the cell each playable cell maps to, or null if the board does not map onto itself
+     */
+    private int[] transform(boolean transpose, boolean flipRow, boolean flipCol){
+        int[] transform = new int[this.geometry.getSize()];
+        for(int cell = 0; cell < transform.length; cell++){
+            int r = this.geometry.cellRow(cell);
+            int c = this.geometry.cellCol(cell);
+            int toRow = transpose ? c : r;
+            int toCol = transpose ? r : c;
+            toRow = flipRow ? this.geometry.getRow() - 1 - toRow : toRow;
+            toCol = flipCol ? this.geometry.getCol() - 1 - toCol : toCol;
+            boolean even = r % 2 == 0 && c % 2 == 0;
+            boolean toEven = toRow % 2 == 0 && toCol % 2 == 0;
+            transform[cell] = this.geometry.cell(toRow, toCol);
+            if(transform[cell] < 0 || even != toEven){
+                return null;
+            }
+        }
+        return transform;
+    }
+
+    /**
+     * @return the number of symmetries, counting the identity
+     */
+    public int getOrder(){
+        return this.transforms.length + 1;
+    }
+
+    /**
+     * Pick the smallest of the masks under every symmetry of the board,
+     * so all symmetric configurations get the same representative
+     * @param bits the green mask followed by the red mask
+     * @return the canonical masks, which may be bits itself
+     */
+    public long[] canonical(long[] bits){
+        long[] best = bits;
+        int words = this.geometry.getWords();
+        for(int[] transform: this.transforms){
+            long[] mapped = new long[bits.length];
+            for(int w = 0; w < bits.length; w++){
+                //the green and red masks are mapped alike
+                int offset = w < words ? 0 : words;
+                for(long frogs = bits[w]; frogs != 0; frogs &= frogs - 1){
+                    int to = transform[(w - offset) * 64 + Long.numberOfTrailingZeros(frogs)];
+                    mapped[offset + (to >>> 6)] |= 1L << to;
+                }
+            }
+            if(compare(mapped, best) < 0){
+                best = mapped;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @param a masks
+     * @param b masks of the same length
+     * @return the order of a and b, comparing long by long
+     */
+    private static int compare(long[] a, long[] b){
+        for(int i = 0; i < a.length; i++){
+            if(a[i] != b[i]){
+                return Long.compare(a[i], b[i]);
+            }
+        }
+        return 0;
+    }
+}
@@ -21,6 +21,8 @@ public class HoppersPTUI implements Observer<HoppersModel, String> {
     public void init(String filename) throws IOException {
         this.model = new HoppersModel(filename);
         this.model.addObserver(this);
+        //background status messages would land in the middle of typed commands
+        this.model.setSpeculative(false);
         displayHelp();
     }
 
@@ -1,11 +1,20 @@
 package puzzles.hoppers.solver;
 
 import puzzles.common.solver.Configuration;
+import puzzles.common.solver.DepthFirstSolver;
+import puzzles.common.solver.ExternalSolver;
+import puzzles.common.solver.LayeredSolver;
+import puzzles.common.solver.SolutionCounter;
 import puzzles.common.solver.Solver;
 import puzzles.hoppers.model.HoppersConfig;
+import puzzles.hoppers.model.HoppersEndgame;
+import puzzles.hoppers.model.HoppersPruner;
 
 import java.io.*;
+import java.nio.file.Paths;
+import java.math.BigInteger;
 import java.util.Collection;
+import java.util.List;
 
 /**
  the main class for the hoppers puzzle
@@ -16,30 +25,90 @@ public class Hoppers {
      check args, if valid then:
      - print arg values
      - create a starting Hoppers config
-     - create a solver object
+     - create a solver object for the optional mode:
+       - bfs: breadth first, the default
+       - parallel: breadth first with every level expanded across the cores
+       - dfs: depth first
+       - layered: breadth first, keeping only two levels
+       - pruned: breadth first, leaving out boards proven dead
+       - endgame: pruned, also by the board's endgame table, and stopping at a known endgame
+       - external: breadth first with the levels kept in files on disk
+       - symmetric: breadth first, merging symmetric boards
+       - count: counting solutions instead of solving
      - start solving the puzzle
      - print total, unique configs
      - print path or no solution (whichever is applicable)
+     or in count mode, print the number of distinct solutions instead of a path
      */
     public static void main(String[] args) throws IOException {
-        //run with one command line argument
+        //run with one command line argument and an optional solver mode
         //if the argument is there, it is assumed to be valid
         //otherwise, error message and terminated
-        if (args.length != 1) {
-            System.out.println("Usage: java Hoppers filename");
+        String mode = args.length == 2 ? args[1] : "bfs";
+        if (args.length < 1 || args.length > 2 || !List.of("bfs", "parallel", "dfs", "symmetric", "layered", "pruned", "endgame", "external", "count").contains(mode)) {
+            System.out.println("Usage: java Hoppers filename [bfs|parallel|dfs|symmetric|layered|pruned|endgame|external|count]");
             System.exit(0);
         }
         //print the arg values
         System.out.println("File: " + args[0]);
         //create a starting hoppers config
         HoppersConfig start = new HoppersConfig(args[0]);
-        //create a new solver
-        Solver solver = new Solver();
-        //start solver
-        Collection<Configuration> path = solver.solve(start);
-
-        System.out.println("Total Configs: " + solver.getTotalConfigs());
-        System.out.print("Unique Configs: " + solver.getUniqueConfigs());
+        Collection<Configuration> path;
+        if(mode.equals("count")){
+            //every move takes a green frog, so the boards form a DAG and each one is counted once
+            SolutionCounter counter = new SolutionCounter();
+            counter.setPruner(new HoppersPruner(start.getGeometry()));
+            BigInteger solutions = counter.count(start);
+            System.out.println("Total Configs: " + counter.getTotalConfigs());
+            System.out.print("Unique Configs: " + counter.getUniqueConfigs());
+            //the number of solutions takes the place of the path
+            System.out.println("\nSolutions: " + solutions);
+            return;
+        }
+        if(mode.equals("dfs")){
+            //the depth first solver keeps only the current path and a bounded table of dead configs
+            DepthFirstSolver solver = new DepthFirstSolver();
+            path = solver.solve(start);
+            System.out.println("Total Configs: " + solver.getTotalConfigs());
+            System.out.print("Unique Configs: " + solver.getUniqueConfigs());
+        }else if(mode.equals("layered")){
+            //the layered solver only keeps two levels, a frog is lost on every move so levels never repeat
+            LayeredSolver solver = new LayeredSolver();
+            path = solver.solve(start);
+            System.out.println("Total Configs: " + solver.getTotalConfigs());
+            System.out.print("Unique Configs: " + solver.getUniqueConfigs());
+        }else if(mode.equals("external")){
+            //the external solver keeps its levels in sorted files in the temporary directory
+            ExternalSolver solver = new ExternalSolver();
+            path = solver.solve(start);
+            System.out.println("Total Configs: " + solver.getTotalConfigs());
+            System.out.print("Unique Configs: " + solver.getUniqueConfigs());
+        }else{
+            //create a new solver, expanding each level on every core in parallel mode
+            Solver solver = mode.equals("parallel") ? new Solver(Runtime.getRuntime().availableProcessors()) : new Solver();
+            //symmetric mode stores one rotation/reflection of each board
+            solver.setCanonical(mode.equals("symmetric"));
+            //pruned mode skips boards whose frogs can never clear every green frog
+            if(mode.equals("pruned")){
+                solver.setPruner(new HoppersPruner(start.getGeometry()));
+            }
+            //endgame mode also drops boards with few green frogs left that the board's endgame table says are dead
+            if(mode.equals("endgame")){
+                HoppersEndgame endgame = HoppersEndgame.find(Paths.get(HoppersEndgames.DIRECTORY), start.getGeometry());
+                if(endgame == null){
+                    System.out.println("No endgame table, build one with HoppersEndgames");
+                    solver.setPruner(new HoppersPruner(start.getGeometry()));
+                }else{
+                    solver.setPruner(endgame.setFallback(new HoppersPruner(start.getGeometry())));
+                    //and stops at the first board the table says can be solved
+                    solver.setOracle(endgame);
+                }
+            }
+            //start solver
+            path = solver.solve(start);
+            System.out.println("Total Configs: " + solver.getTotalConfigs());
+            System.out.print("Unique Configs: " + solver.getUniqueConfigs());
+        }
         if(path != null){
             int step = path.size() - 1;
             String pathStr = "";
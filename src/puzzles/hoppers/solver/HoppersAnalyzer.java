@@ -0,0 +1,46 @@
+package puzzles.hoppers.solver;
+
+import puzzles.common.solver.RetrogradeTable;
+import puzzles.hoppers.model.HoppersConfig;
+import puzzles.hoppers.model.HoppersModel;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ the offline analyzer for the hoppers puzzle, writing the table the model answers hints from
+ @author Ryleigh Fuller
+ */
+public class HoppersAnalyzer {
+    /**
+     check args, if valid then:
+     - work out the distance to a solution of every board reachable from the puzzle
+     - write the table next to the puzzle, where HoppersModel looks for it, or to the given file
+     - print the number of boards, how many can still be solved, the build time and the table size
+     */
+    public static void main(String[] args) throws IOException {
+        if(args.length < 1 || args.length > 2){
+            System.out.println("Usage: java HoppersAnalyzer filename [tablefile]");
+            System.exit(0);
+        }
+        System.out.println("File: " + args[0]);
+        HoppersConfig start;
+        try(BufferedReader br = new BufferedReader(new FileReader(args[0]))){
+            start = new HoppersConfig(br);
+        }
+        Path tableFile = Paths.get(args.length == 2 ? args[1] : HoppersModel.tableFile(args[0]));
+        long begin = System.nanoTime();
+        RetrogradeTable table = RetrogradeTable.build(start);
+        long buildMillis = (System.nanoTime() - begin) / 1_000_000;
+        table.save(tableFile, HoppersModel.tableHeader(start.getGeometry()));
+        int depth = table.getDepth(start);
+        System.out.println("Boards: " + table.size() + ", solvable: " + table.getWinning());
+        System.out.println("Start: " + (depth == RetrogradeTable.DEAD ? "no solution" : depth + " moves from a solution"));
+        System.out.println("Build time: " + buildMillis + " ms");
+        System.out.println("Table: " + tableFile + ", " + Files.size(tableFile) + " bytes");
+    }
+}
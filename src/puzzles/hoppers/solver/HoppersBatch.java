@@ -0,0 +1,277 @@
+package puzzles.hoppers.solver;
+
+import puzzles.common.solver.Configuration;
+import puzzles.common.solver.Solver;
+import puzzles.hoppers.model.HoppersConfig;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ the batch main for the hoppers puzzle, solving many puzzle files in one JVM
+ @author Ryleigh Fuller
+ */
+public class HoppersBatch {
+    /**
+     The outcome of solving one puzzle file
+     */
+    private static class Result {
+        //the puzzle file
+        private final String file;
+        //the output file written, null if the puzzle could not be read
+        private Path output;
+        //the number of moves in the solution, -1 if there is none
+        private int moves = -1;
+        //the time spent reading and solving
+        private long millis;
+        //null if the output matched or was not checked, otherwise what differed
+        private String difference;
+        //the error if the puzzle could not be read or written
+        private String error;
+
+        /**
+         * @param file the puzzle file
+         */
+        private Result(String file){
+            this.file = file;
+        }
+    }
+
+    /**
+     check args, if valid then:
+     - collect the puzzle files, every .txt file in a directory argument
+     - solve them on a fixed pool of threads, one breadth first solver per puzzle
+     - write each output in the output/hoppers format to the output directory
+     - compare each output to the expected one if asked to
+     - print one line per puzzle and the number of puzzles solved per minute
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        Path outDir = Paths.get("output", "batch");
+        Path expectedDir = null;
+        List<String> inputs = new ArrayList<>();
+        try{
+            for(int i = 0; i < args.length; i++){
+                if(args[i].equals("-j")){
+                    threads = Integer.parseInt(args[++i]);
+                }else if(args[i].equals("-o")){
+                    outDir = Paths.get(args[++i]);
+                }else if(args[i].equals("-diff")){
+                    expectedDir = Paths.get(args[++i]);
+                }else{
+                    inputs.add(args[i]);
+                }
+            }
+        }catch(NumberFormatException | ArrayIndexOutOfBoundsException e){
+            inputs.clear();
+        }
+        if(inputs.isEmpty() || threads < 1){
+            System.out.println("Usage: java HoppersBatch [-j threads] [-o outdir] [-diff expecteddir] file|dir...");
+            System.exit(0);
+        }
+        List<String> files = new ArrayList<>();
+        for(String input : inputs){
+            Path path = Paths.get(input);
+            if(Files.isDirectory(path)){
+                //every puzzle in the directory, in name order
+                try(Stream<Path> list = Files.list(path)){
+                    files.addAll(list.filter(p -> Files.isRegularFile(p) && p.toString().endsWith(".txt"))
+                            .sorted().map(Path::toString).collect(Collectors.toList()));
+                }
+            }else{
+                files.add(input);
+            }
+        }
+        Files.createDirectories(outDir);
+
+        //each worker holds one solver's tables at a time, so the pool size bounds the memory too
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, files.size())));
+        long start = System.nanoTime();
+        //kept with its file, so a puzzle that throws can still be named
+        Map<String, Future<Result>> futures = new LinkedHashMap<>();
+        for(String file : files){
+            Path dir = outDir;
+            Path expected = expectedDir;
+            futures.put(file, pool.submit(() -> solve(file, dir, expected)));
+        }
+        pool.shutdown();
+        int solved = 0;
+        int failed = 0;
+        for(Map.Entry<String, Future<Result>> entry : futures.entrySet()){
+            Result result;
+            try{
+                result = entry.getValue().get();
+            }catch(ExecutionException e){
+                //a puzzle too big for the heap should not stop the rest of the batch
+                System.out.println(entry.getKey() + ": error: " + e.getCause());
+                failed++;
+                continue;
+            }
+            if(result.error != null){
+                System.out.println(result.file + ": error: " + result.error);
+                failed++;
+            }else{
+                String line = result.file + ": " + (result.moves < 0 ? "no solution" : result.moves + " moves")
+                        + " in " + result.millis + " ms -> " + result.output;
+                if(result.difference != null){
+                    line += ", DIFFERS: " + result.difference;
+                    failed++;
+                }else{
+                    solved++;
+                }
+                System.out.println(line);
+            }
+        }
+        double minutes = (System.nanoTime() - start) / 60e9;
+        System.out.printf("%d puzzles solved, %d failed, %.1f puzzles per minute%n", solved, failed,
+                minutes > 0 ? solved / minutes : 0.0);
+        if(failed > 0){
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Read, solve and write one puzzle, then compare it to the expected output if there is one
+     * @param file the puzzle file
+     * @param outDir the directory to write the output to
+     * @param expectedDir the directory of expected outputs, or null to not compare
+     * @return what happened
+     */
+    private static Result solve(String file, Path outDir, Path expectedDir){
+        Result result = new Result(file);
+        long start = System.nanoTime();
+        try{
+            HoppersConfig config;
+            try(BufferedReader br = new BufferedReader(new FileReader(file))){
+                config = new HoppersConfig(br);
+            }
+            Solver solver = new Solver();
+            Collection<Configuration> path = solver.solve(config);
+            result.moves = path == null ? -1 : path.size() - 1;
+            String text = "File: " + file + "\n" + format(config, solver.getTotalConfigs(), solver.getUniqueConfigs(), path);
+            //hoppers-0.txt is written as hoppers-0-out.txt, like the expected outputs
+            String name = Paths.get(file).getFileName().toString();
+            name = (name.endsWith(".txt") ? name.substring(0, name.length() - 4) : name) + "-out.txt";
+            result.output = outDir.resolve(name);
+            Files.writeString(result.output, text);
+            if(expectedDir != null){
+                result.difference = compare(expectedDir.resolve(name), text);
+            }
+        }catch(IOException | RuntimeException e){
+            result.error = e.toString();
+        }
+        result.millis = (System.nanoTime() - start) / 1_000_000;
+        return result;
+    }
+
+    /**
+     * Write a solve the way the output/hoppers files do after their File line: the board, the counts,
+     * then every step
+     * @param start the starting board
+     * @param totalConfigs the number of configs the solver generated
+     * @param uniqueConfigs the number of configs the solver kept
+     * @param path the solution from the goal back to the start, or null if there is none
+     * @return the output text
+     */
+    static String format(Configuration start, long totalConfigs, long uniqueConfigs, Collection<Configuration> path){
+        StringBuilder out = new StringBuilder();
+        out.append(board(start)).append('\n');
+        out.append("Total configs: ").append(totalConfigs).append('\n');
+        out.append("Unique configs: ").append(uniqueConfigs).append('\n');
+        if(path == null){
+            out.append("No solution");
+        }else{
+            //the solver lists the path from the goal back to the start
+            List<Configuration> steps = new ArrayList<>(path);
+            for(int step = 0; step < steps.size(); step++){
+                if(step > 0){
+                    out.append("\n\n");
+                }
+                out.append("Step ").append(step).append(":\n").append(board(steps.get(steps.size() - 1 - step)));
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * @param config a board
+     * @return the board with the space at the end of each row and the last newline left off
+     */
+    private static String board(Configuration config){
+        return config.toString().lines().map(String::stripTrailing).collect(Collectors.joining("\n"));
+    }
+
+    /**
+     * Compare an output to the expected one. Shortest solutions are rarely unique and the
+     * config counts depend on the order the solver tries jumps in, so two outputs match when
+     * they start from the same board and both have no solution or a solution of the same length.
+     * @param expected the expected output file
+     * @param actual the output text
+     * @return null if they match, otherwise what differs
+     */
+    private static String compare(Path expected, String actual) throws IOException {
+        if(!Files.exists(expected)){
+            return "no expected output " + expected;
+        }
+        List<String> want = Files.readString(expected).lines().map(String::stripTrailing).collect(Collectors.toList());
+        List<String> got = actual.lines().map(String::stripTrailing).collect(Collectors.toList());
+        if(!startBoard(want).equals(startBoard(got))){
+            return "the starting board is not the one in " + expected;
+        }
+        int wantSteps = steps(want);
+        int gotSteps = steps(got);
+        if(wantSteps != gotSteps){
+            return describe(wantSteps) + " in " + expected + ", got " + describe(gotSteps);
+        }
+        return null;
+    }
+
+    /**
+     * @param lines the lines of an output
+     * @return the lines of the board printed before the config counts
+     */
+    private static List<String> startBoard(List<String> lines){
+        int end = 1;
+        while(end < lines.size() && !lines.get(end).startsWith("Total configs:")){
+            end++;
+        }
+        return lines.subList(Math.min(1, end), end);
+    }
+
+    /**
+     * @param lines the lines of an output
+     * @return the number of moves in the solution, -1 if there is none
+     */
+    private static int steps(List<String> lines){
+        int steps = -1;
+        for(String line : lines){
+            if(line.startsWith("Step ")){
+                steps++;
+            }
+        }
+        return steps;
+    }
+
+    /**
+     * @param steps the number of moves in a solution, -1 if there is none
+     * @return the words for it
+     */
+    private static String describe(int steps){
+        return steps < 0 ? "no solution" : steps + " moves";
+    }
+}
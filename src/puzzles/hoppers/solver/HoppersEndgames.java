@@ -0,0 +1,73 @@
+package puzzles.hoppers.solver;
+
+import puzzles.hoppers.model.HoppersConfig;
+import puzzles.hoppers.model.HoppersEndgame;
+import puzzles.hoppers.model.HoppersGeometry;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ the builder of the hoppers endgame tables, one for each board shape of the puzzles given
+ @author Ryleigh Fuller
+ */
+public class HoppersEndgames {
+    //the directory the tables are kept in when no other is given
+    public static final String DIRECTORY = "endgame";
+
+    /**
+     check args, if valid then:
+     - read the geometry of every puzzle file given
+     - build the table of every placement of the red frog and up to the given number of green frogs,
+       once for each different geometry
+     - print the time each table took and its size
+     */
+    public static void main(String[] args) throws IOException {
+        int greens = 4;
+        Path dir = Paths.get(DIRECTORY);
+        int first = 0;
+        try{
+            while(first < args.length && args[first].startsWith("-")){
+                if(args[first].equals("-k")){
+                    greens = Integer.parseInt(args[first + 1]);
+                }else if(args[first].equals("-d")){
+                    dir = Paths.get(args[first + 1]);
+                }else{
+                    first = args.length;
+                }
+                first += 2;
+            }
+        }catch(NumberFormatException | ArrayIndexOutOfBoundsException e){
+            first = args.length;
+        }
+        if(first >= args.length || greens < 0){
+            System.out.println("Usage: java HoppersEndgames [-k greens] [-d dir] filename...");
+            System.exit(0);
+        }
+        Files.createDirectories(dir);
+        Set<HoppersGeometry> built = new HashSet<>();
+        for(int i = first; i < args.length; i++){
+            HoppersGeometry geometry;
+            try(BufferedReader br = new BufferedReader(new FileReader(args[i]))){
+                geometry = new HoppersConfig(br).getGeometry();
+            }
+            //puzzles with the same water share a table
+            if(!built.add(geometry)){
+                continue;
+            }
+            int k = Math.min(greens, geometry.getSize() - 1);
+            Path file = HoppersEndgame.tableFile(dir, geometry, k);
+            long start = System.nanoTime();
+            HoppersEndgame.build(geometry, k, file);
+            System.out.println(args[i] + ": " + geometry.getRow() + "x" + geometry.getCol() + ", up to " + k
+                    + " green frogs in " + (System.nanoTime() - start) / 1_000_000 + " ms -> " + file
+                    + ", " + Files.size(file) + " bytes");
+        }
+    }
+}
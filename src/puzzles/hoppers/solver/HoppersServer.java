@@ -0,0 +1,255 @@
+package puzzles.hoppers.solver;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import puzzles.common.solver.SolveBudget;
+import puzzles.common.solver.SolveResult;
+import puzzles.common.solver.Solver;
+import puzzles.hoppers.model.HoppersConfig;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ A local solve service for the hoppers puzzle. POST a board in the data/hoppers file format to
+ /solve and the reply is the solve in the output/hoppers format, without the File line.
+ GET /stats reports the cache. Recent answers are cached, and a board already being solved
+ for one request is not solved again for another, the second request waits for the first solve.
+ @author Ryleigh Fuller
+ */
+public class HoppersServer {
+    /**
+     A reply to a solve request
+     */
+    private static class Answer {
+        //the HTTP status code
+        private final int code;
+        //the reply body
+        private final String body;
+
+        /**
+         * @param code the HTTP status code
+         * @param body the reply body
+         */
+        private Answer(int code, String body){
+            this.code = code;
+            this.body = body;
+        }
+    }
+
+    //the most recent answers by board, least recently used first
+    private final Map<String, Answer> cache;
+    //the boards being solved now, shared by every request that asks for one
+    private final ConcurrentHashMap<String, CompletableFuture<Answer>> inFlight = new ConcurrentHashMap<>();
+    //runs the solves, one per core, however many requests are waiting
+    private final ExecutorService solvePool;
+    //the longest one solve may run
+    private final Duration timeLimit;
+    //the requests answered
+    private final AtomicLong requests = new AtomicLong();
+    //the requests answered from the cache
+    private final AtomicLong cacheHits = new AtomicLong();
+    //the requests that waited for a solve another request started
+    private final AtomicLong coalesced = new AtomicLong();
+    //the solves run
+    private final AtomicLong solves = new AtomicLong();
+
+    /**
+     * Create the service, it does not listen until {@link #start(int)}
+     * @param cacheSize the most answers to keep
+     * @param timeLimit the longest one solve may run before the request is told it gave up
+     */
+    public HoppersServer(int cacheSize, Duration timeLimit){
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true){
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Answer> eldest){
+                return size() > cacheSize;
+            }
+        });
+        this.solvePool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        this.timeLimit = timeLimit;
+    }
+
+    /**
+     * Listen on localhost, handling each connection on its own thread
+     * @param port the port to listen on
+     * @return the running server
+     * @throws IOException if the port cannot be bound
+     */
+    public HttpServer start(int port) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/solve", this::handleSolve);
+        server.createContext("/stats", this::handleStats);
+        //waiting connections only block on their solve, the solves themselves are bounded by the solve pool
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        return server;
+    }
+
+    /**
+     * Answer a board from the cache, from a solve already running, or from a new solve
+     * @param exchange the request, its body is the board
+     */
+    private void handleSolve(HttpExchange exchange) throws IOException {
+        try{
+            this.requests.incrementAndGet();
+            if(!exchange.getRequestMethod().equals("POST")){
+                reply(exchange, new Answer(405, "POST a board to /solve\n"));
+                return;
+            }
+            HoppersConfig start;
+            try{
+                start = new HoppersConfig(new BufferedReader(
+                        new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8)));
+            }catch(IOException | RuntimeException e){
+                reply(exchange, new Answer(400, "Bad board: " + e.getMessage() + "\n"));
+                return;
+            }
+            reply(exchange, answer(start));
+        }finally{
+            exchange.close();
+        }
+    }
+
+    /**
+     * @param start the board to solve
+     * @return the cached answer, the answer of the solve already running, or the answer of a new solve
+     */
+    private Answer answer(HoppersConfig start){
+        //the board drawn out is the whole state, water included
+        String key = start.toString();
+        Answer cached = this.cache.get(key);
+        if(cached != null){
+            this.cacheHits.incrementAndGet();
+            return cached;
+        }
+        CompletableFuture<Answer> mine = new CompletableFuture<>();
+        CompletableFuture<Answer> future = this.inFlight.putIfAbsent(key, mine);
+        if(future != null){
+            this.coalesced.incrementAndGet();
+        }else{
+            future = mine;
+            //the solve may have finished between the cache lookup and claiming the board
+            cached = this.cache.get(key);
+            if(cached != null){
+                this.inFlight.remove(key, mine);
+                mine.complete(cached);
+            }else{
+                this.solvePool.execute(() -> solve(key, start, mine));
+            }
+        }
+        try{
+            return future.get();
+        }catch(ExecutionException e){
+            return new Answer(500, "Solve failed: " + e.getCause() + "\n");
+        }catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+            return new Answer(503, "Interrupted\n");
+        }
+    }
+
+    /**
+     * Solve a board within the time limit, cache the answer if it is final and hand it to every waiting request
+     * @param key the board drawn out
+     * @param start the board to solve
+     * @param future completed with the answer
+     */
+    private void solve(String key, HoppersConfig start, CompletableFuture<Answer> future){
+        try{
+            this.solves.incrementAndGet();
+            Solver solver = new Solver();
+            //a board too big for the heap gives up before it takes the other solves down with it,
+            //the budget measures the whole heap, so the solves running together stay under one ceiling
+            solver.setBudget(new SolveBudget().setTimeLimit(this.timeLimit)
+                    .setMaxMemory(Runtime.getRuntime().maxMemory() / 4 * 3));
+            SolveResult result = solver.trySolve(start);
+            Answer answer;
+            if(result.getStatus() == SolveResult.Status.ABORTED){
+                //not cached, a later request may find the server less busy
+                answer = new Answer(503, "Gave up: " + result.getReason() + "\n");
+            }else{
+                answer = new Answer(200, HoppersBatch.format(start, result.getTotalConfigs(),
+                        result.getUniqueConfigs(), result.getPath()) + "\n");
+                this.cache.put(key, answer);
+            }
+            this.inFlight.remove(key, future);
+            future.complete(answer);
+        }catch(Throwable e){
+            this.inFlight.remove(key, future);
+            future.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Report how the requests were answered
+     * @param exchange the request
+     */
+    private void handleStats(HttpExchange exchange) throws IOException {
+        try{
+            reply(exchange, new Answer(200, "Requests: " + this.requests.get()
+                    + "\nCache hits: " + this.cacheHits.get()
+                    + "\nCoalesced: " + this.coalesced.get()
+                    + "\nSolves: " + this.solves.get()
+                    + "\nCached boards: " + this.cache.size()
+                    + "\nSolving now: " + this.inFlight.size() + "\n"));
+        }finally{
+            exchange.close();
+        }
+    }
+
+    /**
+     * @param exchange the request to reply to
+     * @param answer the status code and body
+     */
+    private static void reply(HttpExchange exchange, Answer answer) throws IOException {
+        byte[] body = answer.body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(answer.code, body.length);
+        try(OutputStream out = exchange.getResponseBody()){
+            out.write(body);
+        }
+    }
+
+    /**
+     check args, if valid then start the server and keep it running
+     */
+    public static void main(String[] args) throws IOException {
+        int port = 8080;
+        int cacheSize = 1024;
+        long seconds = 60;
+        try{
+            if(args.length > 0){
+                port = Integer.parseInt(args[0]);
+            }
+            if(args.length > 1){
+                cacheSize = Integer.parseInt(args[1]);
+            }
+            if(args.length > 2){
+                seconds = Long.parseLong(args[2]);
+            }
+        }catch(NumberFormatException e){
+            args = null;
+        }
+        if(args == null || args.length > 3){
+            System.out.println("Usage: java HoppersServer [port] [cache size] [seconds per solve]");
+            System.exit(0);
+        }
+        HttpServer server = new HoppersServer(cacheSize, Duration.ofSeconds(seconds)).start(port);
+        System.out.println("Solving hoppers boards at http://localhost:" + server.getAddress().getPort() + "/solve");
+    }
+}
@@ -5,6 +5,7 @@ import puzzles.common.solver.Configuration;
 import java.util.Collection;
 import java.util.LinkedList;
 import java.util.Objects;
+import java.util.function.Consumer;
 /**
  * The representation of a string configuration
  *
@@ -48,7 +49,15 @@ public class StringsConfig implements Configuration {
     @Override
     public Collection<Configuration> getNeighbors() {
         LinkedList<Configuration> neighbors = new LinkedList<>();
-        //add neighbors
+        forEachNeighbor(neighbors::add);
+        return neighbors;
+    }
+    /**
+        Hand each neighbor to visitor without collecting them
+        @param visitor called once for every neighbor
+     */
+    @Override
+    public void forEachNeighbor(Consumer<Configuration> visitor) {
         String n1;
         String n2;
         for(int i = 0; i < this.start.length(); i++){
@@ -65,10 +74,9 @@ public class StringsConfig implements Configuration {
             }else{
                 n2 = this.start.substring(0, i) + Character.toString(asciiStart+1) + this.start.substring(i + 1);;
             }
-            neighbors.add(new StringsConfig(n1, this.end));
-            neighbors.add(new StringsConfig(n2, this.end));
+            visitor.accept(new StringsConfig(n1, this.end));
+            visitor.accept(new StringsConfig(n2, this.end));
         }
-        return neighbors;
     }
     /**
         do these objects have the same values